@@ -0,0 +1,106 @@
+package com.rods.magicreator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The packaged application running in its own JVM, so the load generator doesn't compete with it for heap or threads
+ * and the server side memory can be measured on its own.
+ */
+public class ApplicationProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ApplicationProcess(Process process, int port) {
+        this.process = process;
+        this.baseUrl = String.format("http://localhost:%s/api/v1", port);
+    }
+
+    public static ApplicationProcess start(String java, File jar, String profile, BenchmarkEnvironment environment, List<String> jvmArgs)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.getAbsolutePath());
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=" + profile);
+        command.add("--spring.data.mongodb.uri=" + environment.mongoUri());
+        command.add("--potterapi.baseURL=" + environment.potterApiUrl());
+        command.add("--logging.level.root=WARN");
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File("build/benchmark-" + profile + ".log")))
+                .start();
+
+        ApplicationProcess application = new ApplicationProcess(process, port);
+        application.awaitHealthy();
+        return application;
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Reads a single value from the actuator metrics endpoint, such as "jvm.memory.used" or "jvm.threads.peak"
+     */
+    public double metric(String name, String... tags) throws IOException, InterruptedException {
+        StringBuilder uri = new StringBuilder(baseUrl).append("/actuator/metrics/").append(name);
+        for (int i = 0; i < tags.length; i++)
+            uri.append(i == 0 ? "?" : "&").append("tag=").append(tags[i]);
+
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(uri.toString())).build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode measurements = mapper.readTree(response.body()).path("measurements");
+        return measurements.isEmpty() ? Double.NaN : measurements.get(0).path("value").asDouble();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    private void awaitHealthy() throws InterruptedException, IOException {
+        Instant deadline = Instant.now().plus(STARTUP_TIMEOUT);
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+        while (Instant.now().isBefore(deadline)) {
+            if (!process.isAlive())
+                throw new IllegalStateException("Application exited during startup - Exit code: " + process.exitValue());
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.ofString()).statusCode() == 200)
+                    return;
+            } catch (IOException e) {
+                //Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        close();
+        throw new IOException("Application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
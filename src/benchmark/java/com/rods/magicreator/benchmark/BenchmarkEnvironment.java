@@ -0,0 +1,81 @@
+package com.rods.magicreator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the application depends on, running locally: a MongoDB container and a {@link MockWebServer} answering
+ * for PotterAPI, so benchmarks neither need a database around nor spend an api key.
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    public static final List<String> HOUSE_IDS = List.of("Gryffindor-Id-123", "Hufflepuff-Id-45325", "Ravenclaw-Id-987", "Slytherin-Id-654");
+
+    private final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:4.0.10"));
+    private final MockWebServer potterApi = new MockWebServer();
+
+    public BenchmarkEnvironment() {
+        mongo.start();
+        potterApi.setDispatcher(new HousesDispatcher(housesResponse()));
+        try {
+            potterApi.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String mongoUri() {
+        return mongo.getReplicaSetUrl("magicreator");
+    }
+
+    public String potterApiUrl() {
+        return String.format("http://localhost:%s/", potterApi.getPort());
+    }
+
+    @Override
+    public void close() throws IOException {
+        potterApi.shutdown();
+        mongo.stop();
+    }
+
+    private static String housesResponse() {
+        List<String> names = List.of("Gryffindor", "Hufflepuff", "Ravenclaw", "Slytherin");
+        try {
+            return new ObjectMapper().writeValueAsString(Map.of("houses", List.of(
+                    Map.of("id", HOUSE_IDS.get(0), "name", names.get(0)),
+                    Map.of("id", HOUSE_IDS.get(1), "name", names.get(1)),
+                    Map.of("id", HOUSE_IDS.get(2), "name", names.get(2)),
+                    Map.of("id", HOUSE_IDS.get(3), "name", names.get(3)))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class HousesDispatcher extends Dispatcher {
+        private final String body;
+
+        HousesDispatcher(String body) {
+            this.body = body;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            if (request.getPath() == null || !request.getPath().endsWith("potterApi/houses"))
+                return new MockResponse().setResponseCode(404);
+
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(body);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.rods.magicreator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills a running application with characters through its batch endpoint, spread over the houses
+ * {@link BenchmarkEnvironment} knows and alternating between students and teachers
+ */
+final class CharacterSeeder {
+
+    private static final int BATCH_SIZE = 500;
+
+    private CharacterSeeder() {
+    }
+
+    static List<String> seed(HttpClient http, ApplicationProcess application, int count) throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> ids = new ArrayList<>();
+        for (int offset = 0; offset < count; offset += BATCH_SIZE) {
+            List<Map<String, String>> batch = new ArrayList<>();
+            for (int i = offset; i < Math.min(count, offset + BATCH_SIZE); i++)
+                batch.add(character(i));
+
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(application.baseUrl() + "/characters/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(batch)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            for (JsonNode created : mapper.readTree(response.body()))
+                if (created.path("success").asBoolean())
+                    ids.add(created.path("character").path("id").asText());
+        }
+        return ids;
+    }
+
+    static Map<String, String> character(int i) {
+        return Map.of(
+                "name", "Character " + i,
+                "role", i % 2 == 0 ? "student" : "teacher",
+                "school", "Hogwarts School of Witchcraft and Wizardry",
+                "house", BenchmarkEnvironment.HOUSE_IDS.get(i % BenchmarkEnvironment.HOUSE_IDS.size()),
+                "patronus", "stag");
+    }
+}
@@ -0,0 +1,249 @@
+package com.rods.magicreator.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the REST API at a fixed arrival rate with a configurable mix of operations, then reports throughput and
+ * latency percentiles per operation. The application runs packaged, in its own JVM, against {@link BenchmarkEnvironment}.
+ * <p>
+ * Requests are sent when scheduled whether or not earlier ones were answered, and latencies are measured from the
+ * scheduled time, so a stalling server shows up in the percentiles instead of slowing the test down.
+ * <p>
+ * Configured through system properties: loadtest.jar, loadtest.profile, loadtest.rate (requests per second),
+ * loadtest.warmup, loadtest.duration, loadtest.characters, loadtest.max-in-flight and loadtest.mix, weights per
+ * operation such as "create=10,update=10,getById=40,search=30,list=10".
+ */
+public class LoadTest {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    //Created characters are named after the run and a sequence, so that creates never fail on names already taken
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong CREATED = new AtomicLong();
+
+    enum Operation {
+        CREATE("create") {
+            @Override
+            HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random) {
+                long created = CREATED.incrementAndGet();
+                Map<String, String> character = new HashMap<>(CharacterSeeder.character((int) (created % Integer.MAX_VALUE)));
+                character.put("name", "Created " + RUN_ID + "-" + created);
+                return json(baseUrl + "/character", "POST", character);
+            }
+        },
+        UPDATE("update") {
+            @Override
+            HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random) {
+                int i = random.nextInt(ids.size());
+                Map<String, String> character = new HashMap<>(CharacterSeeder.character(i));
+                character.put("id", ids.get(i));
+                character.put("role", random.nextBoolean() ? "student" : "teacher");
+                return json(baseUrl + "/character", "PUT", character);
+            }
+        },
+        GET_BY_ID("getById") {
+            @Override
+            HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/character/" + ids.get(random.nextInt(ids.size())))).build();
+            }
+        },
+        SEARCH("search") {
+            @Override
+            HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random) {
+                String house = BenchmarkEnvironment.HOUSE_IDS.get(random.nextInt(BenchmarkEnvironment.HOUSE_IDS.size()));
+                String role = random.nextBoolean() ? "student" : "teacher";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/character?house=" + house + "&role=" + role)).build();
+            }
+        },
+        LIST("list") {
+            @Override
+            HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/characters?size=100")).build();
+            }
+        };
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        abstract HttpRequest request(String baseUrl, List<String> ids, ThreadLocalRandom random);
+
+        static Operation of(String key) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.key.equalsIgnoreCase(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid operation provided as argument - Operation: " + key));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File jar = new File(System.getProperty("loadtest.jar"));
+        String profile = System.getProperty("loadtest.profile", "default");
+        int rate = Integer.getInteger("loadtest.rate", 500);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT1M"));
+        int characters = Integer.getInteger("loadtest.characters", 5000);
+        int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 10_000);
+        Mix mix = Mix.parse(System.getProperty("loadtest.mix", "create=10,update=10,getById=40,search=30,list=10"));
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try (BenchmarkEnvironment environment = new BenchmarkEnvironment();
+             ApplicationProcess application = ApplicationProcess.start(java, jar, profile, environment, List.of("-Xmx1g"))) {
+            List<String> ids = CharacterSeeder.seed(http, application, characters);
+
+            Run run = new Run(http, application.baseUrl(), ids, mix, maxInFlight);
+            run.drive(rate, warmup);
+            run.reset();
+            run.drive(rate, duration);
+
+            System.out.printf("%n%s profile, %d requests/s scheduled for %s after %s of warm up, mix %s%n", profile, rate, duration, warmup, mix);
+            System.out.printf("%-10s %10s %12s %8s %10s %10s %10s %10s%n", "operation", "requests", "requests/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            for (Operation operation : mix.operations()) {
+                Histogram latencies = run.latencies.get(operation).getIntervalHistogram();
+                System.out.printf("%-10s %10d %12.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                        operation.key, latencies.getTotalCount(), latencies.getTotalCount() / (double) duration.toSeconds(), run.errors.get(operation).sum(),
+                        millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                        millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+            }
+        }
+    }
+
+    private static class Run {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final List<String> ids;
+        private final Mix mix;
+        private final int maxInFlight;
+
+        private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Run(HttpClient http, String baseUrl, List<String> ids, Mix mix, int maxInFlight) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.ids = ids;
+            this.mix = mix;
+            this.maxInFlight = maxInFlight;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Recorder(HIGHEST_LATENCY, 3));
+                errors.put(operation, new LongAdder());
+            }
+        }
+
+        void drive(int rate, Duration duration) throws InterruptedException {
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+
+            for (long scheduled = start; scheduled < end; scheduled += interval) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                send(mix.next(), scheduled);
+            }
+
+            //Requests still being answered belong to this run
+            long deadline = System.nanoTime() + HIGHEST_LATENCY;
+            while (inFlight.get() > 0 && System.nanoTime() < deadline)
+                Thread.sleep(10);
+        }
+
+        void reset() {
+            latencies.values().forEach(Recorder::reset);
+            errors.values().forEach(LongAdder::reset);
+        }
+
+        private void send(Operation operation, long scheduled) {
+            //Past this point the server is not keeping up at all, and opening more connections wouldn't tell anything new
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                errors.get(operation).increment();
+                return;
+            }
+
+            http.sendAsync(operation.request(baseUrl, ids, ThreadLocalRandom.current()), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = Math.min(System.nanoTime() - scheduled, HIGHEST_LATENCY);
+                        if (error == null && response.statusCode() < 400)
+                            latencies.get(operation).recordValue(latency);
+                        else
+                            errors.get(operation).increment();
+                        inFlight.decrementAndGet();
+                    });
+        }
+    }
+
+    private static class Mix {
+        private final Map<Operation, Integer> weights;
+        private final Operation[] draws;
+
+        private Mix(Map<Operation, Integer> weights) {
+            this.weights = weights;
+            this.draws = weights.entrySet().stream()
+                    .flatMap(weight -> Collections.nCopies(weight.getValue(), weight.getKey()).stream())
+                    .toArray(Operation[]::new);
+            if (draws.length == 0)
+                throw new IllegalArgumentException("Invalid mix provided as argument - At least one operation must have weight");
+        }
+
+        static Mix parse(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] weight = entry.trim().split("=");
+                weights.put(Operation.of(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+            }
+            return new Mix(weights);
+        }
+
+        Operation next() {
+            return draws[ThreadLocalRandom.current().nextInt(draws.length)];
+        }
+
+        Set<Operation> operations() {
+            return weights.keySet();
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(",");
+            weights.forEach((operation, weight) -> joiner.add(operation.key + "=" + weight));
+            return joiner.toString();
+        }
+    }
+
+    private static HttpRequest json(String uri, String method, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(uri))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.rods.magicreator.benchmark;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares throughput and server memory between handling requests on Tomcat's platform thread pool and on virtual
+ * threads (the "virtual-threads" profile), with a large number of concurrent clients each sending its next request as
+ * soon as the previous one is answered. Half of the requests search characters by house, always reaching MongoDB,
+ * and half find a single character by id.
+ * <p>
+ * Configured through system properties: benchmark.jar, benchmark.java (a JDK 21 java executable), benchmark.clients,
+ * benchmark.warmup, benchmark.duration and benchmark.characters.
+ */
+public class ThreadModeBenchmark {
+
+    private static final Map<String, String> MODES = new LinkedHashMap<>(Map.of(
+            "platform", "default",
+            "virtual", "virtual-threads"));
+
+    public static void main(String[] args) throws Exception {
+        File jar = new File(System.getProperty("benchmark.jar"));
+        String java = System.getProperty("benchmark.java", "java");
+        int clients = Integer.getInteger("benchmark.clients", 1000);
+        Duration warmup = Duration.parse(System.getProperty("benchmark.warmup", "PT15S"));
+        Duration duration = Duration.parse(System.getProperty("benchmark.duration", "PT1M"));
+        int characters = Integer.getInteger("benchmark.characters", 5000);
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<String> ids = new ArrayList<>();
+        Map<String, Result> results = new LinkedHashMap<>();
+
+        try (BenchmarkEnvironment environment = new BenchmarkEnvironment()) {
+            for (Map.Entry<String, String> mode : MODES.entrySet()) {
+                try (ApplicationProcess application = ApplicationProcess.start(java, jar, mode.getValue(), environment, List.of("-Xmx1g"))) {
+                    if (ids.isEmpty())
+                        ids.addAll(CharacterSeeder.seed(http, application, characters));
+
+                    run(http, application, ids, clients, warmup);
+                    Result result = run(http, application, ids, clients, duration);
+                    result.heapBytes = application.metric("jvm.memory.used", "area:heap");
+                    result.nonHeapBytes = application.metric("jvm.memory.used", "area:nonheap");
+                    result.peakThreads = application.metric("jvm.threads.peak");
+                    results.put(mode.getKey(), result);
+                }
+            }
+        }
+
+        System.out.printf("%n%d concurrent clients, %s measured after %s of warm up%n", clients, duration, warmup);
+        System.out.printf("%-10s %12s %10s %14s %16s %14s%n", "mode", "requests/s", "errors", "heap used MB", "non-heap used MB", "peak threads");
+        results.forEach((mode, result) -> System.out.printf("%-10s %12.1f %10d %14.1f %16.1f %14.0f%n",
+                mode, result.completed / (double) duration.toSeconds(), result.failed,
+                result.heapBytes / 1_048_576, result.nonHeapBytes / 1_048_576, result.peakThreads));
+    }
+
+    private static Result run(HttpClient http, ApplicationProcess application, List<String> ids, int clients, Duration duration)
+            throws InterruptedException {
+        ClosedLoop loop = new ClosedLoop(http, () -> nextRequest(application, ids), clients);
+        loop.start();
+        Thread.sleep(duration.toMillis());
+        return loop.stop();
+    }
+
+    private static HttpRequest nextRequest(ApplicationProcess application, List<String> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = random.nextBoolean()
+                ? "/character/" + ids.get(random.nextInt(ids.size()))
+                : "/character?house=" + BenchmarkEnvironment.HOUSE_IDS.get(random.nextInt(BenchmarkEnvironment.HOUSE_IDS.size())) + "&role=teacher&name=Character%201";
+        return HttpRequest.newBuilder(URI.create(application.baseUrl() + path)).build();
+    }
+
+    private static class ClosedLoop {
+        private final HttpClient http;
+        private final RequestSource requests;
+        private final int clients;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final CountDownLatch stopped;
+        private volatile boolean running = true;
+
+        ClosedLoop(HttpClient http, RequestSource requests, int clients) {
+            this.http = http;
+            this.requests = requests;
+            this.clients = clients;
+            this.stopped = new CountDownLatch(clients);
+        }
+
+        void start() {
+            for (int i = 0; i < clients; i++)
+                next();
+        }
+
+        Result stop() throws InterruptedException {
+            running = false;
+            stopped.await();
+            Result result = new Result();
+            result.completed = completed.sum();
+            result.failed = failed.sum();
+            return result;
+        }
+
+        private void next() {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            http.sendAsync(requests.next(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error == null && response.statusCode() < 400)
+                            completed.increment();
+                        else
+                            failed.increment();
+                        next();
+                    });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestSource {
+        HttpRequest next();
+    }
+
+    private static class Result {
+        long completed;
+        long failed;
+        double heapBytes;
+        double nonHeapBytes;
+        double peakThreads;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rods.magicreator.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.rods.magicreator.domain.models.Character;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A slice of characters written and read as JSON, CBOR and Smile, the formats the controllers negotiate. The payload
+ * size of each format is printed when its trial starts, next to the encode and decode times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatsBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    private List<Character> characters;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory())
+                .modulesToInstall(new ParameterNamesModule())
+                .build();
+        JavaType listOfCharacters = mapper.getTypeFactory().constructCollectionType(List.class, Character.class);
+        writer = mapper.writerFor(listOfCharacters);
+        reader = mapper.readerFor(listOfCharacters);
+
+        Character character = new Character(null, "Harry Potter", "student", "Hogwarts School of Witchcraft and Wizardry",
+                "Gryffindor-Id-123", "Gryffindor", "stag", null);
+        characters = IntStream.range(0, 100)
+                .mapToObj(i -> character.withId(new ObjectId().toString()).withName("Character " + i))
+                .collect(Collectors.toList());
+        encoded = writer.writeValueAsBytes(characters);
+
+        System.out.printf("%n%s payload for %d characters: %d bytes%n", format, characters.size(), encoded.length);
+    }
+
+    private JsonFactory factory() {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeCharacters() throws Exception {
+        return writer.writeValueAsBytes(characters);
+    }
+
+    @Benchmark
+    public List<Character> decodeCharacters() throws Exception {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rods.magicreator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.repositories.house.http.models.HouseModel;
+import com.rods.magicreator.repositories.house.http.models.HouseModelRoot;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JSON as the application writes and reads it. The mapper is built the way Spring Boot builds it, so it carries the
+ * same modules and features.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader housesReader;
+
+    private Character character;
+    private Page<Character> page;
+    private byte[] houses;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+        housesReader = mapper.readerFor(HouseModelRoot.class);
+
+        character = new Character(new ObjectId().toString(), "Harry Potter", "student", "Hogwarts School of Witchcraft and Wizardry",
+                "Gryffindor-Id-123", "Gryffindor", "stag", null);
+        List<Character> content = IntStream.range(0, 100)
+                .mapToObj(i -> character.withId(new ObjectId().toString()).withName("Character " + i))
+                .collect(Collectors.toList());
+        page = new PageImpl<>(content, PageRequest.of(0, 100), 10_000);
+
+        houses = mapper.writeValueAsBytes(HouseModelRoot.builder()
+                .houses(List.of("Gryffindor", "Hufflepuff", "Ravenclaw", "Slytherin").stream()
+                        .map(name -> HouseModel.builder()
+                                .id(name + "-Id")
+                                .name(name)
+                                .school("Hogwarts School of Witchcraft and Wizardry")
+                                .founder(name + " founder")
+                                .headOfHouse(name + " head")
+                                .houseGhost(name + " ghost")
+                                .mascot(name + " mascot")
+                                .colors(List.of("scarlet", "gold"))
+                                .values(List.of("courage", "bravery", "nerve", "chivalry"))
+                                .build())
+                        .collect(Collectors.toList()))
+                .build());
+    }
+
+    @Benchmark
+    public byte[] writeCharacter() throws Exception {
+        return writer.writeValueAsBytes(character);
+    }
+
+    @Benchmark
+    public byte[] writeCharactersPage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public HouseModelRoot readHouses() throws Exception {
+        return housesReader.readValue(houses);
+    }
+}
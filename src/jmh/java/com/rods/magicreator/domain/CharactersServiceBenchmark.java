@@ -0,0 +1,65 @@
+package com.rods.magicreator.domain;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CharactersServiceBenchmark {
+
+    private CharactersService service;
+    private CharactersService creator;
+    private Character toCreate;
+    private Character toUpdate;
+    private CharacterFilter gryffindorStudents;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new CharactersService(new InProcessCharacterStore(), new InProcessHousesInfo());
+
+        for (int i = 0; i < 10_000; i++)
+            service.create(new Character(null, "Character " + i, i % 2 == 0 ? "student" : "teacher", "Hogwarts",
+                    InProcessHousesInfo.HOUSES.get(i % InProcessHousesInfo.HOUSES.size()).getId(), null, "stag", null));
+
+        //Created characters are not kept, otherwise the store would grow for as long as the benchmark runs
+        creator = new CharactersService(new InProcessCharacterStore() {
+            @Override
+            public Character create(Character character) {
+                return character.withId("60c1e2b5f1a2b34c5d6e7f80");
+            }
+        }, new InProcessHousesInfo());
+
+        toCreate = new Character(null, "Harry Potter", "student", "Hogwarts", "Gryffindor-Id-123", null, "stag", null);
+        toUpdate = service.create(toCreate).withRole("auror");
+        gryffindorStudents = CharacterFilter.builder().house("Gryffindor-Id-123").role("student").build();
+    }
+
+    @Benchmark
+    public Character create() throws Exception {
+        return creator.create(toCreate);
+    }
+
+    @Benchmark
+    public Character update() throws Exception {
+        return service.update(toUpdate);
+    }
+
+    @Benchmark
+    public Object findById() throws Exception {
+        return service.findBy(toUpdate.getId());
+    }
+
+    @Benchmark
+    public List<Character> findByFilter() throws Exception {
+        return service.findBy(gryffindorStudents, CharacterProjection.ALL);
+    }
+}
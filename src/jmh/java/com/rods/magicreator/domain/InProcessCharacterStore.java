@@ -0,0 +1,109 @@
+package com.rods.magicreator.domain;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps characters in a map so that benchmarks measure the service itself, not a database round trip
+ */
+class InProcessCharacterStore implements IStoreCharacters {
+
+    private final Map<String, Character> characters = new ConcurrentHashMap<>();
+
+    @Override
+    public Character create(Character character) {
+        Character created = character.withId(new ObjectId().toString());
+        characters.put(created.getId(), created);
+        return created;
+    }
+
+    @Override
+    public List<CharacterCreationResult> createAll(List<Character> toCreate) {
+        List<CharacterCreationResult> results = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++)
+            results.add(CharacterCreationResult.success(i, create(toCreate.get(i))));
+        return results;
+    }
+
+    @Override
+    public Character update(Character character) {
+        characters.put(character.getId(), character);
+        return character;
+    }
+
+    @Override
+    public Optional<Character> patch(String id, CharacterPatch patch) {
+        return Optional.ofNullable(characters.computeIfPresent(id, (key, character) -> patch.applyTo(character)));
+    }
+
+    @Override
+    public long updateAll(CharacterFilter filter, CharacterPatch patch) {
+        List<Character> matching = findBy(filter, CharacterProjection.ALL);
+        matching.forEach(character -> characters.put(character.getId(), patch.applyTo(character)));
+        return matching.size();
+    }
+
+    @Override
+    public long deleteAll(CharacterFilter filter) {
+        List<Character> matching = findBy(filter, CharacterProjection.ALL);
+        matching.forEach(character -> characters.remove(character.getId()));
+        return matching.size();
+    }
+
+    @Override
+    public void delete(String id) {
+        characters.remove(id);
+    }
+
+    @Override
+    public Page<Character> findAll(int page) {
+        List<Character> all = new ArrayList<>(characters.values());
+        int from = Math.min(page * 100, all.size());
+        return new PageImpl<>(all.subList(from, Math.min(from + 100, all.size())), PageRequest.of(page, 100), all.size());
+    }
+
+    @Override
+    public CharacterSlice findAll(String after, int size, CharacterProjection projection) {
+        List<Character> content = characters.values().stream().limit(size).map(projection::apply).collect(Collectors.toList());
+        return CharacterSlice.builder().content(content).size(content.size()).build();
+    }
+
+    @Override
+    public Optional<Character> findBy(String id) {
+        return Optional.ofNullable(characters.get(id));
+    }
+
+    @Override
+    public void streamAll(int batchSize, Predicate<List<Character>> batchConsumer) {
+        batchConsumer.test(new ArrayList<>(characters.values()));
+    }
+
+    @Override
+    public List<Character> findBy(CharacterFilter filter, CharacterProjection projection) {
+        return characters.values().stream()
+                .filter(c -> filter.getName() == null || c.getName().contains(filter.getName()))
+                .filter(c -> filter.getRole() == null || filter.getRole().equals(c.getRole()))
+                .filter(c -> filter.getSchool() == null || filter.getSchool().equals(c.getSchool()))
+                .filter(c -> filter.getHouse() == null || filter.getHouse().equals(c.getHouse()))
+                .filter(c -> filter.getPatronus() == null || filter.getPatronus().equals(c.getPatronus()))
+                .map(projection::apply)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,34 @@
+package com.rods.magicreator.domain;
+
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.ports.out.IObtainHousesInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers house lookups from a fixed set, as HouseDirectory does once loaded
+ */
+class InProcessHousesInfo implements IObtainHousesInfo {
+
+    static final List<House> HOUSES = List.of(
+            new House("Gryffindor-Id-123", "Gryffindor", "Hogwarts School of Witchcraft and Wizardry"),
+            new House("Hufflepuff-Id-45325", "Hufflepuff", "Hogwarts School of Witchcraft and Wizardry"),
+            new House("Ravenclaw-Id-987", "Ravenclaw", "Hogwarts School of Witchcraft and Wizardry"),
+            new House("Slytherin-Id-654", "Slytherin", "Hogwarts School of Witchcraft and Wizardry"));
+
+    private final Map<String, House> housesById = HOUSES.stream().collect(Collectors.toMap(House::getId, Function.identity()));
+
+    @Override
+    public List<House> getHouses() {
+        return HOUSES;
+    }
+
+    @Override
+    public Optional<House> getHouseById(String id) {
+        return Optional.ofNullable(housesById.get(id));
+    }
+}
@@ -0,0 +1,38 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//Lives in the adapter package to reach its package-private mappers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CharacterMappingBenchmark {
+
+    private CharacterModel model;
+    private Character character;
+
+    @Setup
+    public void setUp() {
+        model = new CharacterModel(new ObjectId(), "Harry Potter", "student", "Hogwarts School of Witchcraft and Wizardry",
+                "Gryffindor-Id-123", "Gryffindor", "stag", null);
+        character = CharacterMongoDBAdapter.toCharacter(model);
+    }
+
+    @Benchmark
+    public Character toCharacter() {
+        return CharacterMongoDBAdapter.toCharacter(model);
+    }
+
+    @Benchmark
+    public CharacterModel fromCharacter() {
+        return CharacterMongoDBAdapter.fromCharacter(character);
+    }
+}
@@ -3,16 +3,25 @@ package com.rods.magicreator;
 import com.rods.magicreator.controller.CharactersController;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class MagicreatorApplication {
 
+    //Enough for every bean this application creates, each being one step
+    private static final int STARTUP_STEPS_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(MagicreatorApplication.class, args);
+        SpringApplication application = new SpringApplication(MagicreatorApplication.class);
+        //Steps are kept for the startup actuator endpoint and for the breakdown logged once the application is ready
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 
 }
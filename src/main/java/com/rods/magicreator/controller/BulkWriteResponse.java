@@ -0,0 +1,13 @@
+package com.rods.magicreator.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How many characters a write by filter changed
+ */
+@AllArgsConstructor
+@Getter
+public class BulkWriteResponse {
+    private long count;
+}
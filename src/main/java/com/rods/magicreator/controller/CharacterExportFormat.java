@@ -0,0 +1,76 @@
+package com.rods.magicreator.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rods.magicreator.domain.models.Character;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Line-oriented formats the whole {@link Character} collection can be exported to
+ */
+public enum CharacterExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")) {
+        @Override
+        void writeHeader(Writer writer) {
+        }
+
+        @Override
+        void write(Writer writer, ObjectWriter json, Character character) throws IOException {
+            json.writeValue(writer, character);
+            writer.write('\n');
+        }
+    },
+    CSV(MediaType.parseMediaType("text/csv")) {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("id,name,role,school,house,houseName,patronus\n");
+        }
+
+        @Override
+        void write(Writer writer, ObjectWriter json, Character character) throws IOException {
+            writer.write(Stream.of(
+                    character.getId(),
+                    character.getName(),
+                    character.getRole(),
+                    character.getSchool(),
+                    character.getHouse(),
+                    character.getHouseName(),
+                    character.getPatronus()
+            ).map(CharacterExportFormat::escapeCsv).collect(Collectors.joining(",")));
+            writer.write('\n');
+        }
+    };
+
+    private final MediaType mediaType;
+
+    CharacterExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    abstract void write(Writer writer, ObjectWriter json, Character character) throws IOException;
+
+    public static CharacterExportFormat of(String format) {
+        return Arrays.stream(values())
+                .filter(f -> f.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid export format provided as argument - Format: " + format));
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        return value;
+    }
+}
@@ -1,27 +1,56 @@
 package com.rods.magicreator.controller;
 
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterFilter.NameMatch;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
 import com.rods.magicreator.domain.ports.in.IManageCharacters;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CharacterNotFoundException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CharacterWritesBackedUpException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CharacterWritesLaterDisabledException;
 import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotCreateCharacterException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotCreateCharactersException;
 import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotDeleteCharacterException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotDeleteCharactersException;
 import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotSearchCharactersException;
 import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotUpdateCharacterException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotUpdateCharactersException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.rods.magicreator.support.JacksonConfiguration.projected;
 
 @RestController
+@Profile("!reactive")
 public class CharactersController {
 
+    private static final String PREFER_RESPOND_ASYNC = "Prefer=respond-async";
+
     private final IManageCharacters charactersManager;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public CharactersController(IManageCharacters charactersManager) {
+    public CharactersController(IManageCharacters charactersManager,
+                                @Value("${characters.page.default-size:100}") int defaultPageSize,
+                                @Value("${characters.page.max-size:1000}") int maxPageSize) {
         this.charactersManager = charactersManager;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping("/character")
@@ -36,6 +65,35 @@ public class CharactersController {
         }
     }
 
+    //Clients opt into write-behind per request, by preferring an asynchronous response (RFC 7240)
+    @PostMapping(value = "/character", headers = PREFER_RESPOND_ASYNC)
+    public ResponseEntity<Character> createLater(@RequestBody CreateCharacterRequest request) {
+        try {
+            return accepted(charactersManager.createLater(toCharacter(request)));
+        } catch (CharacterWritesBackedUpException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        } catch (CharacterWritesLaterDisabledException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage(), e);
+        } catch (CouldNotCreateCharacterException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    @PostMapping("/characters/batch")
+    public List<CharacterCreationResult> createAll(@RequestBody List<CreateCharacterRequest> requests) {
+        try {
+            return charactersManager.createAll(requests.stream().map(this::toCharacter).collect(Collectors.toList()));
+        } catch (CouldNotCreateCharactersException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
     @PutMapping("/character")
     public Character update(@RequestBody Character request) {
         try {
@@ -48,6 +106,38 @@ public class CharactersController {
         }
     }
 
+    @PutMapping(value = "/character", headers = PREFER_RESPOND_ASYNC)
+    public ResponseEntity<Character> updateLater(@RequestBody Character request) {
+        try {
+            return accepted(charactersManager.updateLater(request));
+        } catch (CharacterWritesBackedUpException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        } catch (CharacterWritesLaterDisabledException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage(), e);
+        } catch (CouldNotUpdateCharacterException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    @PatchMapping("/character/{id}")
+    public Character patch(@PathVariable String id, @RequestBody PatchCharacterRequest request) {
+        try {
+            return charactersManager.patch(id, toPatch(request));
+        } catch (CharacterNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (CouldNotUpdateCharacterException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
     @DeleteMapping("/character/{id}")
     public void delete(@PathVariable String id) {
         try {
@@ -60,11 +150,53 @@ public class CharactersController {
         }
     }
 
+    @PatchMapping("/characters")
+    public BulkWriteResponse updateAll(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String school,
+            @RequestParam(required = false) String house,
+            @RequestParam(required = false) String patronus,
+            @RequestParam(defaultValue = "CONTAINS") NameMatch nameMatch,
+            @RequestBody PatchCharacterRequest request) {
+        try {
+            return new BulkWriteResponse(charactersManager.updateAll(toFilter(name, role, school, house, patronus, nameMatch), toPatch(request)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (CouldNotUpdateCharactersException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    @DeleteMapping("/characters")
+    public BulkWriteResponse deleteAll(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String school,
+            @RequestParam(required = false) String house,
+            @RequestParam(required = false) String patronus,
+            @RequestParam(defaultValue = "CONTAINS") NameMatch nameMatch) {
+        try {
+            return new BulkWriteResponse(charactersManager.deleteAll(toFilter(name, role, school, house, patronus, nameMatch)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (CouldNotDeleteCharactersException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
     @GetMapping("/character/{id}")
     public ResponseEntity<Object> findById(@PathVariable String id) throws CouldNotSearchCharactersException {
         try {
+            //Requests whose If-None-Match holds the character's ETag get a 304 without it being written
             return charactersManager.findBy(id)
-                    .map(x -> new ResponseEntity<Object>(x, HttpStatus.OK))
+                    .map(CharactersController::versioned)
                     .orElse(new ResponseEntity<Object>("{ \"message\":\"Id not corresponding to any Character\" }", HttpStatus.OK));
         } catch (CouldNotSearchCharactersException e) {
             if (e.contains(IllegalArgumentException.class))
@@ -74,7 +206,7 @@ public class CharactersController {
         }
     }
 
-    @GetMapping("/characters")
+    @GetMapping(value = "/characters", params = "page")
     public Page<Character> findAll(@RequestParam int page) {
         try {
             return charactersManager.findAll(page);
@@ -86,15 +218,36 @@ public class CharactersController {
         }
     }
 
+    @GetMapping(value = "/characters", params = "!page")
+    public MappingJacksonValue findAll(@RequestParam(required = false) String after,
+                                       @RequestParam(required = false) Integer size,
+                                       @RequestParam(required = false) List<String> fields) {
+        if (size != null && size < 1)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be greater than zero");
+
+        CharacterProjection projection = toProjection(fields);
+        try {
+            return projected(charactersManager.findAll(after, size == null ? defaultPageSize : Math.min(size, maxPageSize), projection), projection);
+        } catch (CouldNotSearchCharactersException e) {
+            if (e.contains(IllegalArgumentException.class))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
+
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
     @GetMapping("/character")
-    public List<Character> findBy(
+    public MappingJacksonValue findBy(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String role,
             @RequestParam(required = false) String school,
             @RequestParam(required = false) String house,
-            @RequestParam(required = false) String patronus) {
+            @RequestParam(required = false) String patronus,
+            @RequestParam(defaultValue = "CONTAINS") NameMatch nameMatch,
+            @RequestParam(required = false) List<String> fields) {
+        CharacterProjection projection = toProjection(fields);
         try {
-            return charactersManager.findBy(name, role, school, house, patronus);
+            return projected(charactersManager.findBy(toFilter(name, role, school, house, patronus, nameMatch), projection), projection);
         } catch (CouldNotSearchCharactersException e) {
             if (e.contains(IllegalArgumentException.class))
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
@@ -103,6 +256,52 @@ public class CharactersController {
         }
     }
 
+    private static ResponseEntity<Character> accepted(Character character) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Preference-Applied", "respond-async")
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath().path("/character/{id}").buildAndExpand(character.getId()).toUri())
+                .body(character);
+    }
+
+    //The ETag is weak, as the JSON, CBOR and Smile bodies of a version all share it
+    private static ResponseEntity<Object> versioned(Character character) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+        if (character.getVersion() != null)
+            response.eTag("W/\"" + character.getId() + "-" + character.getVersion() + "\"");
+        return response.body(character);
+    }
+
+    private CharacterProjection toProjection(List<String> fields) {
+        try {
+            return CharacterProjection.of(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private CharacterFilter toFilter(String name, String role, String school, String house, String patronus, NameMatch nameMatch) {
+        return CharacterFilter.builder()
+                .name(name)
+                .nameMatch(nameMatch)
+                .role(role)
+                .school(school)
+                .house(house)
+                .patronus(patronus)
+                .build();
+    }
+
+    private CharacterPatch toPatch(PatchCharacterRequest request) {
+        return CharacterPatch.builder()
+                .name(request.getName())
+                .role(request.getRole())
+                .school(request.getSchool())
+                .house(request.getHouse())
+                .patronus(request.getPatronus())
+                .build();
+    }
+
     private Character toCharacter(CreateCharacterRequest request) {
         return Character.builder()
                 .name(request.getName())
@@ -0,0 +1,82 @@
+package com.rods.magicreator.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.ports.in.IManageCharacters;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.CouldNotSearchCharactersException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@Slf4j
+public class CharactersExportController {
+
+    private final IManageCharacters charactersManager;
+    private final ObjectWriter json;
+    private final int batchSize;
+
+    public CharactersExportController(IManageCharacters charactersManager,
+                                      ObjectMapper objectMapper,
+                                      @Value("${characters.export.batch-size:500}") int batchSize) {
+        this.charactersManager = charactersManager;
+        //The writer is shared by the whole export, so it must neither close nor flush it after every character
+        this.json = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchSize = batchSize;
+    }
+
+    @GetMapping("/characters/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        CharacterExportFormat exportFormat;
+        try {
+            exportFormat = CharacterExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        StreamingResponseBody body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            exportFormat.writeHeader(writer);
+            try {
+                charactersManager.exportAll(batchSize, batch -> writeBatch(writer, exportFormat, batch));
+            } catch (CouldNotSearchCharactersException e) {
+                //Headers are already gone at this point, so the best we can do is cutting the stream short
+                throw new IOException("Export interrupted by an error reading characters", e);
+            }
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(body);
+    }
+
+    private boolean writeBatch(Writer writer, CharacterExportFormat format, List<Character> batch) {
+        try {
+            for (Character character : batch)
+                format.write(writer, json, character);
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            log.info("Stopping characters export - Client is no longer reading it: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -3,13 +3,20 @@ package com.rods.magicreator.controller;
 import com.rods.magicreator.domain.models.House;
 import com.rods.magicreator.domain.ports.in.IDisplayHouses;
 import com.rods.magicreator.domain.ports.in.IDisplayHouses.CouldNotSearchHousesException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 public class HousesController {
 
     private final IDisplayHouses housesService;
@@ -19,9 +26,15 @@ public class HousesController {
     }
 
     @GetMapping("/houses")
-    public List<House> findAll() {
+    public ResponseEntity<List<House>> findAll() {
         try {
-            return housesService.findHouses();
+            //Requests whose If-None-Match holds the ETag of the houses known get a 304 without them being written
+            List<House> houses = housesService.findHouses();
+            return ResponseEntity.ok()
+                    .eTag(eTagOf(houses))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(houses);
         } catch (CouldNotSearchHousesException e) {
             if (e.contains(IllegalArgumentException.class))
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMostSpecificCause().getMessage(), e);
@@ -29,6 +42,13 @@ public class HousesController {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMostSpecificCause().getMessage(), e);
         }
     }
-}
-
 
+    //Derived from the houses themselves, so it only changes when a refresh brings houses in or changes them. Weak, as
+    //the JSON, CBOR and Smile bodies of the same houses share it
+    private static String eTagOf(List<House> houses) {
+        StringBuilder contents = new StringBuilder();
+        for (House house : houses)
+            contents.append(house.getId()).append('\0').append(house.getName()).append('\0').append(house.getSchool()).append('\n');
+        return "W/\"" + DigestUtils.md5DigestAsHex(contents.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
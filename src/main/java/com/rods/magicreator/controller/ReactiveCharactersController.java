@@ -0,0 +1,172 @@
+package com.rods.magicreator.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterFilter.NameMatch;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.ports.in.IReactivelyManageCharacters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedCheckedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Same API as {@link CharactersController} and {@link CharactersExportController}, served without blocking when
+ * running with the reactive profile. Page number based listing is not available, only cursors.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveCharactersController {
+
+    private final IReactivelyManageCharacters charactersManager;
+    private final ObjectWriter json;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int exportBatchSize;
+
+    public ReactiveCharactersController(IReactivelyManageCharacters charactersManager,
+                                        ObjectMapper objectMapper,
+                                        @Value("${characters.page.default-size:100}") int defaultPageSize,
+                                        @Value("${characters.page.max-size:1000}") int maxPageSize,
+                                        @Value("${characters.export.batch-size:500}") int exportBatchSize) {
+        this.charactersManager = charactersManager;
+        this.json = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    @PostMapping("/character")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Character> create(@RequestBody CreateCharacterRequest request) {
+        return charactersManager.create(toCharacter(request))
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @PutMapping("/character")
+    public Mono<Character> update(@RequestBody Character request) {
+        return charactersManager.update(request)
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @DeleteMapping("/character/{id}")
+    public Mono<Void> delete(@PathVariable String id) {
+        return charactersManager.delete(id)
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @GetMapping("/character/{id}")
+    public Mono<ResponseEntity<Object>> findById(@PathVariable String id) {
+        return charactersManager.findBy(id)
+                .map(x -> new ResponseEntity<Object>(x, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<Object>("{ \"message\":\"Id not corresponding to any Character\" }", HttpStatus.OK))
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @GetMapping("/characters")
+    public Mono<CharacterSlice> findAll(@RequestParam(required = false) String after, @RequestParam(required = false) Integer size) {
+        if (size != null && size < 1)
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be greater than zero"));
+
+        return charactersManager.findAll(after, size == null ? defaultPageSize : Math.min(size, maxPageSize))
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @GetMapping("/character")
+    public Flux<Character> findBy(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String school,
+            @RequestParam(required = false) String house,
+            @RequestParam(required = false) String patronus,
+            @RequestParam(defaultValue = "CONTAINS") NameMatch nameMatch) {
+        return charactersManager.findBy(CharacterFilter.builder()
+                        .name(name)
+                        .nameMatch(nameMatch)
+                        .role(role)
+                        .school(school)
+                        .house(house)
+                        .patronus(patronus)
+                        .build())
+                .onErrorMap(ReactiveCharactersController::toResponseStatus);
+    }
+
+    @GetMapping("/characters/export")
+    public ResponseEntity<Flux<String>> export(@RequestParam(defaultValue = "ndjson") String format) {
+        CharacterExportFormat exportFormat;
+        try {
+            exportFormat = CharacterExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        //Characters are written in batches so each chunk sent to the client carries more than a single line
+        Flux<String> body = Flux.concat(
+                Mono.fromCallable(() -> header(exportFormat)),
+                charactersManager.exportAll()
+                        .buffer(exportBatchSize)
+                        .map(batch -> write(exportFormat, batch)));
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(body);
+    }
+
+    private String header(CharacterExportFormat format) throws IOException {
+        StringWriter writer = new StringWriter();
+        format.writeHeader(writer);
+        return writer.toString();
+    }
+
+    private String write(CharacterExportFormat format, List<Character> batch) {
+        StringWriter writer = new StringWriter();
+        try {
+            for (Character character : batch)
+                format.write(writer, json, character);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static Throwable toResponseStatus(Throwable e) {
+        if (e instanceof ResponseStatusException)
+            return e;
+
+        if (e instanceof IllegalArgumentException)
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+
+        if (e instanceof NestedCheckedException) {
+            NestedCheckedException nested = (NestedCheckedException) e;
+            if (nested.contains(IllegalArgumentException.class))
+                return new ResponseStatusException(HttpStatus.BAD_REQUEST, nested.getMostSpecificCause().getMessage(), e);
+
+            return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, nested.getMostSpecificCause().getMessage(), e);
+        }
+
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
+    }
+
+    private Character toCharacter(CreateCharacterRequest request) {
+        return Character.builder()
+                .name(request.getName())
+                .role(request.getRole())
+                .school(request.getSchool())
+                .house(request.getHouse())
+                .patronus(request.getPatronus())
+                .build();
+    }
+}
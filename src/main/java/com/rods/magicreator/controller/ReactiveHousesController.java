@@ -0,0 +1,27 @@
+package com.rods.magicreator.controller;
+
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.ports.in.IReactivelyDisplayHouses;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+@RestController
+@Profile("reactive")
+public class ReactiveHousesController {
+
+    private final IReactivelyDisplayHouses housesService;
+
+    public ReactiveHousesController(IReactivelyDisplayHouses housesService) {
+        this.housesService = housesService;
+    }
+
+    @GetMapping("/houses")
+    public Flux<House> findAll() {
+        return housesService.findHouses()
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e));
+    }
+}
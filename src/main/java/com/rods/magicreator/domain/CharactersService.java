@@ -1,22 +1,34 @@
 package com.rods.magicreator.domain;
 
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.models.HousesRenamed;
 import com.rods.magicreator.domain.ports.in.IDisplayHouses;
 import com.rods.magicreator.domain.ports.in.IManageCharacters;
 import com.rods.magicreator.domain.ports.out.IObtainHousesInfo;
 import com.rods.magicreator.domain.ports.out.IObtainHousesInfo.ErrorObtainingHousesException;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorDeletingCharacterException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.TooManyPendingWritesException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.WritingLaterDisabledException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Profile("!reactive")
 public class CharactersService implements IManageCharacters, IDisplayHouses {
 
     private final IStoreCharacters charactersRepository;
@@ -37,6 +49,16 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
         }
     }
 
+    @Override
+    public CharacterSlice findAll(String after, int size, CharacterProjection projection) throws CouldNotSearchCharactersException {
+        try {
+            return charactersRepository.findAll(after, size, projection);
+        } catch (IStoreCharacters.ErrorSearchingCharactersException e) {
+            log.error("Could not search for all characters. After: {}, Fields: {}", after, projection, e);
+            throw new CouldNotSearchCharactersException(e);
+        }
+    }
+
     @Override
     public Optional<Character> findBy(String id) throws CouldNotSearchCharactersException {
         try {
@@ -47,6 +69,16 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
         }
     }
 
+    @Override
+    public void exportAll(int batchSize, Predicate<List<Character>> batchConsumer) throws CouldNotSearchCharactersException {
+        try {
+            charactersRepository.streamAll(batchSize, batchConsumer);
+        } catch (IStoreCharacters.ErrorSearchingCharactersException e) {
+            log.error("Could not export characters.", e);
+            throw new CouldNotSearchCharactersException(e);
+        }
+    }
+
     @Override
     public Character create(Character character) throws CouldNotCreateCharacterException, IllegalArgumentException {
         try {
@@ -70,11 +102,51 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
     }
 
     @Override
-    public List<Character> findBy(String name, String role, String school, String house, String patronus) throws CouldNotSearchCharactersException {
+    public List<CharacterCreationResult> createAll(List<Character> characters) throws CouldNotCreateCharactersException {
         try {
-            return charactersRepository.findBy(name, role, school, house, patronus);
+            Map<String, Optional<House>> housesById = new HashMap<>();
+            for (String houseId : distinctHouseIds(characters))
+                housesById.put(houseId, housesRepository.getHouseById(houseId));
+
+            CharacterCreationResult[] results = new CharacterCreationResult[characters.size()];
+            List<Integer> positionsToSave = new ArrayList<>();
+            List<Character> charactersToSave = new ArrayList<>();
+
+            for (int i = 0; i < characters.size(); i++) {
+                Character character = characters.get(i);
+                Optional<House> house = housesById.getOrDefault(character.getHouse(), Optional.empty());
+
+                if (character.getId() != null) {
+                    results[i] = CharacterCreationResult.failure(i, character, "Character Id must be null - Did you mean to update it?");
+                } else if (house.isEmpty()) {
+                    results[i] = CharacterCreationResult.failure(i, character, new InvalidHouseProvidedException(character.getHouse()).getMessage());
+                } else {
+                    positionsToSave.add(i);
+                    charactersToSave.add(character.withHouseName(house.get().getName()));
+                }
+            }
+
+            if (!charactersToSave.isEmpty()) {
+                for (CharacterCreationResult stored : charactersRepository.createAll(charactersToSave)) {
+                    int position = positionsToSave.get(stored.getIndex());
+                    results[position] = stored.withIndex(position);
+                }
+            }
+
+            return Arrays.asList(results);
+
+        } catch (Exception e) {
+            log.error("Error trying to create a batch of characters. Batch size: {}", characters.size(), e);
+            throw new CouldNotCreateCharactersException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Character> findBy(CharacterFilter filter, CharacterProjection projection) throws CouldNotSearchCharactersException {
+        try {
+            return charactersRepository.findBy(filter, projection);
         } catch (IStoreCharacters.ErrorSearchingCharactersException e) {
-            log.error("Could not search for characters.", e);
+            log.error("Could not search for characters. Fields: {}", projection, e);
             throw new CouldNotSearchCharactersException(e);
         }
     }
@@ -101,6 +173,81 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
         }
     }
 
+    @Override
+    public Character createLater(Character character) throws CouldNotCreateCharacterException, CharacterWritesBackedUpException, CharacterWritesLaterDisabledException {
+        try {
+            if (character.getId() != null) throw new IllegalArgumentException("Character Id must be null - Did you mean to update it?");
+
+            return charactersRepository.createLater(withValidHouse(character));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Illegal argument when trying to create a character", e);
+            throw e;
+        } catch (TooManyPendingWritesException e) {
+            log.warn("Refused to create a character later - {}", e.getMessage());
+            throw new CharacterWritesBackedUpException(e);
+        } catch (WritingLaterDisabledException e) {
+            throw new CharacterWritesLaterDisabledException(e);
+        } catch (Exception e) {
+            log.error("Error trying to create a character later. Character {}", character, e);
+            throw new CouldNotCreateCharacterException(character, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Character updateLater(Character character) throws CouldNotUpdateCharacterException, CharacterWritesBackedUpException, CharacterWritesLaterDisabledException {
+        try {
+            if (character.getId() == null) throw new IllegalArgumentException("Character Id must not be null - Did you mean to create it?");
+
+            return charactersRepository.updateLater(withValidHouse(character));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Illegal argument when trying to update a character", e);
+            throw e;
+        } catch (TooManyPendingWritesException e) {
+            log.warn("Refused to update a character later - {}", e.getMessage());
+            throw new CharacterWritesBackedUpException(e);
+        } catch (WritingLaterDisabledException e) {
+            throw new CharacterWritesLaterDisabledException(e);
+        } catch (Exception e) {
+            log.error("Error trying to update a character later", e);
+            throw new CouldNotUpdateCharacterException(character, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Character patch(String id, CharacterPatch patch) throws CouldNotUpdateCharacterException {
+        try {
+            if (id == null) throw new IllegalArgumentException("Character Id must not be null - Did you mean to create it?");
+            if (patch.isEmpty()) throw new IllegalArgumentException("Nothing to update - At least one field must be provided");
+
+            //The house is only looked up when it changes, as it is the only field needing validation. Resending the
+            //house the character is already in is left out of the patch, and changes nothing when it was all there was
+            CharacterPatch patchToApply = patch.withHouseName(null);
+            if (patch.getHouse() != null) {
+                Character current = charactersRepository.findBy(id).orElseThrow(() -> new CharacterNotFoundException(id));
+                if (patch.changesHouse(current.getHouse())) {
+                    House house = housesRepository
+                            .getHouseById(patch.getHouse())
+                            .orElseThrow(() -> new InvalidHouseProvidedException(patch.getHouse()));
+                    patchToApply = patchToApply.withHouseName(house.getName());
+                } else {
+                    patchToApply = patchToApply.withHouse(null);
+                    if (patchToApply.isEmpty()) return current;
+                }
+            }
+
+            return charactersRepository.patch(id, patchToApply).orElseThrow(() -> new CharacterNotFoundException(id));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Illegal argument when trying to patch a character", e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error trying to patch a character - Id: {}", id, e);
+            throw new CouldNotUpdateCharacterException(patch.applyTo(Character.builder().id(id).build()), e.getMessage(), e);
+        }
+    }
+
     @Override
     public void delete(String id) throws CouldNotDeleteCharacterException {
         try {
@@ -111,6 +258,77 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
         }
     }
 
+    @Override
+    public long updateAll(CharacterFilter filter, CharacterPatch patch) throws CouldNotUpdateCharactersException {
+        try {
+            if (filter.isEmpty()) throw new IllegalArgumentException("At least one filter must be provided - Did you mean to update every character?");
+            if (patch.isEmpty()) throw new IllegalArgumentException("Nothing to update - At least one field must be provided");
+            if (patch.getName() != null) throw new IllegalArgumentException("Names are unique, so they can't be updated in bulk");
+
+            //Characters filtered by the house they are patched into are already in it, so it is neither looked up nor written
+            CharacterPatch patchToApply = patch.withHouseName(null);
+            if (patch.changesHouse(filter.getHouse())) {
+                House house = housesRepository
+                        .getHouseById(patch.getHouse())
+                        .orElseThrow(() -> new InvalidHouseProvidedException(patch.getHouse()));
+                patchToApply = patchToApply.withHouseName(house.getName());
+            } else if (patch.getHouse() != null) {
+                patchToApply = patchToApply.withHouse(null);
+                if (patchToApply.isEmpty()) return 0;
+            }
+
+            long updated = charactersRepository.updateAll(filter, patchToApply);
+            log.info("Characters updated in bulk - Updated: {}", updated);
+            return updated;
+
+        } catch (IllegalArgumentException e) {
+            log.error("Illegal argument when trying to update characters in bulk", e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error trying to update characters in bulk", e);
+            throw new CouldNotUpdateCharactersException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long deleteAll(CharacterFilter filter) throws CouldNotDeleteCharactersException {
+        if (filter.isEmpty()) throw new IllegalArgumentException("At least one filter must be provided - Did you mean to delete every character?");
+
+        try {
+            long deleted = charactersRepository.deleteAll(filter);
+            log.info("Characters deleted in bulk - Deleted: {}", deleted);
+            return deleted;
+        } catch (ErrorDeletingCharacterException e) {
+            log.error("Could not delete characters in bulk.", e);
+            throw new CouldNotDeleteCharactersException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Houses are renamed by PotterAPI, so characters holding the old names are caught up whenever a refresh of the
+     * houses notices it, with a single bulk write for each house
+     */
+    @EventListener
+    public void onHousesRenamed(HousesRenamed event) {
+        reconcileHouseNames(event.getHouses());
+    }
+
+    public long reconcileHouseNames(List<House> renamed) {
+        long updated = 0;
+        for (House house : renamed) {
+            try {
+                long renamedCharacters = charactersRepository.renameHouse(house.getId(), house.getName());
+                log.info("Characters caught up with renamed house - House id: {}, Name: {}, Updated: {}", house.getId(), house.getName(), renamedCharacters);
+                updated += renamedCharacters;
+            } catch (IStoreCharacters.ErrorStoringCharacterException e) {
+                log.error("Could not catch characters up with renamed house - House id: {}, Name: {}", house.getId(), house.getName(), e);
+            }
+        }
+
+        log.info("House names reconciled - Houses renamed: {}, Characters updated: {}", renamed.size(), updated);
+        return updated;
+    }
+
     @Override
     public List<House> findHouses() throws CouldNotSearchHousesException {
         try {
@@ -120,5 +338,19 @@ public class CharactersService implements IManageCharacters, IDisplayHouses {
             throw new CouldNotSearchHousesException(e);
         }
     }
-}
 
+    private Character withValidHouse(Character character) throws ErrorObtainingHousesException {
+        House house = housesRepository
+                .getHouseById(character.getHouse())
+                .orElseThrow(() -> new InvalidHouseProvidedException(character.getHouse()));
+
+        return character.withHouseName(house.getName());
+    }
+
+    private Set<String> distinctHouseIds(List<Character> characters) {
+        return characters.stream()
+                .map(Character::getHouse)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
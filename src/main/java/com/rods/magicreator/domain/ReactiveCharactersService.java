@@ -0,0 +1,119 @@
+package com.rods.magicreator.domain;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.models.HousesRenamed;
+import com.rods.magicreator.domain.ports.in.IDisplayHouses.CouldNotSearchHousesException;
+import com.rods.magicreator.domain.ports.in.IManageCharacters.*;
+import com.rods.magicreator.domain.ports.in.IReactivelyDisplayHouses;
+import com.rods.magicreator.domain.ports.in.IReactivelyManageCharacters;
+import com.rods.magicreator.domain.ports.out.IReactivelyObtainHousesInfo;
+import com.rods.magicreator.domain.ports.out.IReactivelyStoreCharacters;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveCharactersService implements IReactivelyManageCharacters, IReactivelyDisplayHouses {
+
+    private final IReactivelyStoreCharacters charactersRepository;
+    private final IReactivelyObtainHousesInfo housesRepository;
+
+    public ReactiveCharactersService(IReactivelyStoreCharacters charactersRepository, IReactivelyObtainHousesInfo housesRepository) {
+        this.charactersRepository = charactersRepository;
+        this.housesRepository = housesRepository;
+    }
+
+    @Override
+    public Mono<CharacterSlice> findAll(String after, int size) {
+        return charactersRepository.findAll(after, size)
+                .doOnError(e -> log.error("Could not search for all characters. After: {}", after, e))
+                .onErrorMap(CouldNotSearchCharactersException::new);
+    }
+
+    @Override
+    public Mono<Character> findBy(String id) {
+        return charactersRepository.findBy(id)
+                .doOnError(e -> log.error("Could not search for characters. Id: {}", id, e))
+                .onErrorMap(CouldNotSearchCharactersException::new);
+    }
+
+    @Override
+    public Flux<Character> findBy(CharacterFilter filter) {
+        return charactersRepository.findBy(filter)
+                .doOnError(e -> log.error("Could not search for characters.", e))
+                .onErrorMap(CouldNotSearchCharactersException::new);
+    }
+
+    @Override
+    public Flux<Character> exportAll() {
+        return charactersRepository.findAll()
+                .doOnError(e -> log.error("Could not export characters.", e))
+                .onErrorMap(CouldNotSearchCharactersException::new);
+    }
+
+    @Override
+    public Mono<Character> create(Character character) {
+        if (character.getId() != null)
+            return Mono.error(new IllegalArgumentException("Character Id must be null - Did you mean to update it?"));
+
+        return withHouseName(character)
+                .flatMap(charactersRepository::create)
+                .doOnError(e -> log.error("Error trying to create a character. Character {}", character, e))
+                .onErrorMap(e -> !(e instanceof IllegalArgumentException),
+                        e -> new CouldNotCreateCharacterException(character, e.getMessage(), e));
+    }
+
+    @Override
+    public Mono<Character> update(Character character) {
+        if (character.getId() == null)
+            return Mono.error(new IllegalArgumentException("Character Id must not be null - Did you mean to create it?"));
+
+        return withHouseName(character)
+                .flatMap(charactersRepository::update)
+                .doOnError(e -> log.error("Error trying to update a character", e))
+                .onErrorMap(e -> !(e instanceof IllegalArgumentException),
+                        e -> new CouldNotUpdateCharacterException(character, e.getMessage(), e));
+    }
+
+    @Override
+    public Mono<Void> delete(String id) {
+        return charactersRepository.delete(id)
+                .doOnError(e -> log.error("Could not delete character.", e))
+                .onErrorMap(e -> new CouldNotDeleteCharacterException(id, e));
+    }
+
+    @Override
+    public Flux<House> findHouses() {
+        return housesRepository.getHouses()
+                .doOnError(e -> log.error("Could not search houses.", e))
+                .onErrorMap(CouldNotSearchHousesException::new);
+    }
+
+    /**
+     * Catches characters up with houses renamed by PotterAPI, as {@link CharactersService} does, without waiting for
+     * the writes
+     */
+    @EventListener
+    public void onHousesRenamed(HousesRenamed event) {
+        Flux.fromIterable(event.getHouses())
+                .concatMap(house -> charactersRepository.renameHouse(house.getId(), house.getName())
+                        .doOnNext(updated -> log.info("Characters caught up with renamed house - House id: {}, Name: {}, Updated: {}", house.getId(), house.getName(), updated))
+                        .doOnError(e -> log.error("Could not catch characters up with renamed house - House id: {}, Name: {}", house.getId(), house.getName(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    private Mono<Character> withHouseName(Character character) {
+        return housesRepository.getHouseById(character.getHouse())
+                .switchIfEmpty(Mono.error(() -> new InvalidHouseProvidedException(character.getHouse())))
+                .map(house -> character.withHouseName(house.getName()));
+    }
+}
@@ -21,4 +21,7 @@ public class Character {
     private String house;
     private String houseName;
     private String patronus;
+
+    //Incremented by the store on every write, so equal versions of a character always hold the same contents
+    private Long version;
 }
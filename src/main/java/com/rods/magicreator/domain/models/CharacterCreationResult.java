@@ -0,0 +1,29 @@
+package com.rods.magicreator.domain.models;
+
+import lombok.*;
+
+/**
+ * Outcome of creating a single {@link Character} as part of a batch. The index points to the position of the
+ * character in the batch it was submitted with.
+ */
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+@With
+public class CharacterCreationResult {
+    private int index;
+    private Character character;
+    private String error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public static CharacterCreationResult success(int index, Character character) {
+        return new CharacterCreationResult(index, character, null);
+    }
+
+    public static CharacterCreationResult failure(int index, Character character, String error) {
+        return new CharacterCreationResult(index, character, error);
+    }
+}
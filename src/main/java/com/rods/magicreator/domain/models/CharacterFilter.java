@@ -0,0 +1,40 @@
+package com.rods.magicreator.domain.models;
+
+import lombok.*;
+
+/**
+ * Dynamic filters for searching {@link Character Characters}. Every non-null field must match exactly, except for
+ * the name, which is matched according to {@link NameMatch}.
+ */
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+@With
+public class CharacterFilter {
+    private String name;
+    @Builder.Default
+    private NameMatch nameMatch = NameMatch.CONTAINS;
+    private String role;
+    private String school;
+    private String house;
+    private String patronus;
+
+    public boolean isEmpty() {
+        return name == null && role == null && school == null && house == null && patronus == null;
+    }
+
+    public enum NameMatch {
+        /**
+         * Name contains the given text anywhere. Kept for compatibility, but it can't be answered from an index
+         */
+        CONTAINS,
+        /**
+         * Name starts with the given text
+         */
+        PREFIX,
+        /**
+         * Name is exactly the given text, ignoring case
+         */
+        EXACT_IGNORE_CASE
+    }
+}
@@ -0,0 +1,44 @@
+package com.rods.magicreator.domain.models;
+
+import lombok.*;
+
+/**
+ * Changes to some fields of a {@link Character}. Fields left null are kept as they are, so a patch can't clear them.
+ */
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+@With
+public class CharacterPatch {
+    private String name;
+    private String role;
+    private String school;
+    private String house;
+    private String houseName;
+    private String patronus;
+
+    public boolean isEmpty() {
+        return name == null && role == null && school == null && house == null && houseName == null && patronus == null;
+    }
+
+    /**
+     * Whether the patch moves characters in the given house to another one
+     */
+    public boolean changesHouse(String currentHouse) {
+        return house != null && !house.equals(currentHouse);
+    }
+
+    /**
+     * The character as it is after this patch, keeping its version
+     */
+    public Character applyTo(Character character) {
+        return character.toBuilder()
+                .name(name != null ? name : character.getName())
+                .role(role != null ? role : character.getRole())
+                .school(school != null ? school : character.getSchool())
+                .house(house != null ? house : character.getHouse())
+                .houseName(houseName != null ? houseName : character.getHouseName())
+                .patronus(patronus != null ? patronus : character.getPatronus())
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.rods.magicreator.domain.models;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Fields of {@link Character Characters} to be read, for callers that don't need them whole. The id is always read,
+ * as it identifies the character and positions cursors.
+ */
+public final class CharacterProjection {
+
+    public static final List<String> FIELDS = List.of("id", "name", "role", "school", "house", "houseName", "patronus");
+    public static final CharacterProjection ALL = new CharacterProjection(new LinkedHashSet<>(FIELDS));
+
+    private final Set<String> fields;
+
+    private CharacterProjection(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public static CharacterProjection of(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) return ALL;
+
+        List<String> unknown = fields.stream().filter(field -> !FIELDS.contains(field)).collect(Collectors.toList());
+        if (!unknown.isEmpty())
+            throw new IllegalArgumentException("Invalid fields provided as argument - Fields: " + unknown + ", expected any of " + FIELDS);
+
+        //Kept in declaration order, so equal projections always look the same
+        return new CharacterProjection(FIELDS.stream()
+                .filter(field -> field.equals("id") || fields.contains(field))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public boolean isAll() {
+        return fields.size() == FIELDS.size();
+    }
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * A copy of the character holding only the projected fields
+     */
+    public Character apply(Character character) {
+        if (isAll()) return character;
+
+        return Character.builder()
+                .id(character.getId())
+                .name(includes("name") ? character.getName() : null)
+                .role(includes("role") ? character.getRole() : null)
+                .school(includes("school") ? character.getSchool() : null)
+                .house(includes("house") ? character.getHouse() : null)
+                .houseName(includes("houseName") ? character.getHouseName() : null)
+                .patronus(includes("patronus") ? character.getPatronus() : null)
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CharacterProjection && fields.equals(((CharacterProjection) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+}
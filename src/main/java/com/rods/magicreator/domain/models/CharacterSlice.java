@@ -0,0 +1,18 @@
+package com.rods.magicreator.domain.models;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A slice of {@link Character Characters} read with keyset pagination. "next" is an opaque cursor to be sent back
+ * to read the following slice, and is null when there is nothing left to read.
+ */
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+public class CharacterSlice {
+    private List<Character> content;
+    private int size;
+    private String next;
+}
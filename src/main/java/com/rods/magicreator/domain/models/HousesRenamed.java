@@ -0,0 +1,14 @@
+package com.rods.magicreator.domain.models;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Published when a refresh of the houses brings in houses that were already known under another name
+ */
+@AllArgsConstructor
+@Getter
+public class HousesRenamed {
+    private List<House> houses;
+}
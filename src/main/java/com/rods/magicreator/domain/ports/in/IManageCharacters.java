@@ -1,21 +1,35 @@
 package com.rods.magicreator.domain.ports.in;
 
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import lombok.Getter;
 import org.springframework.core.NestedCheckedException;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface IManageCharacters {
     Character create(Character character) throws CouldNotCreateCharacterException, IllegalArgumentException;
+    List<CharacterCreationResult> createAll(List<Character> characters) throws CouldNotCreateCharactersException;
     Character update(Character character) throws CouldNotUpdateCharacterException, IllegalArgumentException;
+    Character patch(String id, CharacterPatch patch) throws CouldNotUpdateCharacterException, IllegalArgumentException;
+    Character createLater(Character character) throws CouldNotCreateCharacterException, CharacterWritesBackedUpException, CharacterWritesLaterDisabledException, IllegalArgumentException;
+    Character updateLater(Character character) throws CouldNotUpdateCharacterException, CharacterWritesBackedUpException, CharacterWritesLaterDisabledException, IllegalArgumentException;
     void delete(String id) throws CouldNotDeleteCharacterException;
+    long updateAll(CharacterFilter filter, CharacterPatch patch) throws CouldNotUpdateCharactersException, IllegalArgumentException;
+    long deleteAll(CharacterFilter filter) throws CouldNotDeleteCharactersException, IllegalArgumentException;
 
     Page<Character> findAll(int page) throws CouldNotSearchCharactersException;
+    CharacterSlice findAll(String after, int size, CharacterProjection projection) throws CouldNotSearchCharactersException;
     Optional<Character> findBy(String id) throws CouldNotSearchCharactersException;
-    List<Character> findBy(String name, String role, String school, String house, String patronus) throws CouldNotSearchCharactersException;
+    void exportAll(int batchSize, Predicate<List<Character>> batchConsumer) throws CouldNotSearchCharactersException;
+    List<Character> findBy(CharacterFilter filter, CharacterProjection projection) throws CouldNotSearchCharactersException;
 
     class CouldNotCreateCharacterException extends NestedCheckedException {
         @Getter
@@ -27,12 +41,24 @@ public interface IManageCharacters {
         }
     }
 
+    class CouldNotCreateCharactersException extends NestedCheckedException {
+        public CouldNotCreateCharactersException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
     class InvalidHouseProvidedException extends IllegalArgumentException {
         public InvalidHouseProvidedException(String houseProvided) {
             super("Invalid house provided as argument - House id: "+houseProvided);
         }
     }
 
+    class CharacterNotFoundException extends IllegalArgumentException {
+        public CharacterNotFoundException(String id) {
+            super("Id not corresponding to any Character - Id: "+id);
+        }
+    }
+
     class CouldNotUpdateCharacterException extends NestedCheckedException {
         @Getter
         private final Character character;
@@ -43,6 +69,24 @@ public interface IManageCharacters {
         }
     }
 
+    class CouldNotUpdateCharactersException extends NestedCheckedException {
+        public CouldNotUpdateCharactersException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    class CharacterWritesBackedUpException extends NestedCheckedException {
+        public CharacterWritesBackedUpException(Throwable cause) {
+            super("Too many character writes waiting to be stored - Try again later", cause);
+        }
+    }
+
+    class CharacterWritesLaterDisabledException extends NestedCheckedException {
+        public CharacterWritesLaterDisabledException(Throwable cause) {
+            super("Characters can't be written later, as it is disabled - Send the request without Prefer: respond-async", cause);
+        }
+    }
+
     class CouldNotSearchCharactersException extends NestedCheckedException {
         public CouldNotSearchCharactersException(Throwable cause) {
             super("Could not search characters", cause);
@@ -58,4 +102,10 @@ public interface IManageCharacters {
             this.id = id;
         }
     }
+
+    class CouldNotDeleteCharactersException extends NestedCheckedException {
+        public CouldNotDeleteCharactersException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
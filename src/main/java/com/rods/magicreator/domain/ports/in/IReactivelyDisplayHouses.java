@@ -0,0 +1,11 @@
+package com.rods.magicreator.domain.ports.in;
+
+import com.rods.magicreator.domain.models.House;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link IDisplayHouses}. Failures are signaled with the same exceptions, as errors.
+ */
+public interface IReactivelyDisplayHouses {
+    Flux<House> findHouses();
+}
@@ -0,0 +1,21 @@
+package com.rods.magicreator.domain.ports.in;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IManageCharacters}. Failures are signaled with the same exceptions, as errors.
+ */
+public interface IReactivelyManageCharacters {
+    Mono<Character> create(Character character);
+    Mono<Character> update(Character character);
+    Mono<Void> delete(String id);
+
+    Mono<CharacterSlice> findAll(String after, int size);
+    Mono<Character> findBy(String id);
+    Flux<Character> findBy(CharacterFilter filter);
+    Flux<Character> exportAll();
+}
@@ -0,0 +1,14 @@
+package com.rods.magicreator.domain.ports.out;
+
+import com.rods.magicreator.domain.models.House;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IObtainHousesInfo}. Unknown houses complete empty, and failures are signaled
+ * with the same exceptions, as errors.
+ */
+public interface IReactivelyObtainHousesInfo {
+    Flux<House> getHouses();
+    Mono<House> getHouseById(String id);
+}
@@ -1,20 +1,62 @@
 package com.rods.magicreator.domain.ports.out;
 
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import org.springframework.core.NestedCheckedException;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface IStoreCharacters {
     Character create(Character character) throws ErrorStoringCharacterException;
+    List<CharacterCreationResult> createAll(List<Character> characters) throws ErrorStoringCharacterException;
     Character update(Character character) throws ErrorStoringCharacterException;
+    Optional<Character> patch(String id, CharacterPatch patch) throws ErrorStoringCharacterException;
     void delete(String id) throws ErrorDeletingCharacterException;
+    long updateAll(CharacterFilter filter, CharacterPatch patch) throws ErrorStoringCharacterException;
+    long deleteAll(CharacterFilter filter) throws ErrorDeletingCharacterException;
 
     Page<Character> findAll(int page) throws ErrorSearchingCharactersException;
+    CharacterSlice findAll(String after, int size, CharacterProjection projection) throws ErrorSearchingCharactersException;
     Optional<Character> findBy(String id) throws ErrorSearchingCharactersException;
-    List<Character> findBy(String name, String role, String school, String house, String patronus) throws ErrorSearchingCharactersException;
+    void streamAll(int batchSize, Predicate<List<Character>> batchConsumer) throws ErrorSearchingCharactersException;
+    List<Character> findBy(CharacterFilter filter, CharacterProjection projection) throws ErrorSearchingCharactersException;
+
+    /**
+     * Stores may acknowledge these writes before making them, in which case the character is handed back with its id
+     * but without a version, and searches won't find it until it is written. Stores writing right away just do so.
+     */
+    default Character createLater(Character character) throws ErrorStoringCharacterException {
+        return create(character);
+    }
+
+    default Character updateLater(Character character) throws ErrorStoringCharacterException {
+        return update(character);
+    }
+
+    /**
+     * Copies the new name of a house into its characters, returning how many were changed. Characters already holding
+     * the new name are left alone, so their versions don't move when nothing changed.
+     */
+    default long renameHouse(String houseId, String houseName) throws ErrorStoringCharacterException {
+        CharacterPatch renamed = CharacterPatch.builder().houseName(houseName).build();
+        try {
+            long changed = 0;
+            for (Character character : findBy(CharacterFilter.builder().house(houseId).build(), CharacterProjection.ALL))
+                if (!Objects.equals(character.getHouseName(), houseName) && patch(character.getId(), renamed).isPresent())
+                    changed++;
+            return changed;
+        } catch (ErrorSearchingCharactersException e) {
+            throw new ErrorStoringCharacterException("Error renaming the house of characters", e);
+        }
+    }
 
     class ErrorSearchingCharactersException extends NestedCheckedException {
         public ErrorSearchingCharactersException(Throwable cause) {
@@ -28,6 +70,18 @@ public interface IStoreCharacters {
         }
     }
 
+    class TooManyPendingWritesException extends ErrorStoringCharacterException {
+        public TooManyPendingWritesException(int pending) {
+            super("Too many writes waiting to be stored - Pending: " + pending, null);
+        }
+    }
+
+    class WritingLaterDisabledException extends ErrorStoringCharacterException {
+        public WritingLaterDisabledException() {
+            super("Writing characters later is disabled - Set characters.write-behind.enabled to accept them", null);
+        }
+    }
+
     class ErrorDeletingCharacterException extends NestedCheckedException {
         public ErrorDeletingCharacterException(String msg, Throwable cause) {
             super(msg, cause);
@@ -0,0 +1,314 @@
+package com.rods.magicreator.repositories.character.memory;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters;
+import com.rods.magicreator.repositories.character.mongodb.CharacterQueries;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps characters in memory only, for running without MongoDB. Behaves like
+ * {@link com.rods.magicreator.repositories.character.mongodb.CharacterMongoDBAdapter CharacterMongoDBAdapter}: ids are
+ * ObjectIds, names are unique, slices are read in id order with the same cursors and pages hold 100 characters.
+ * <p>
+ * Characters are also indexed by role, school, house and patronus. Writes are serialized so that the unique name rule
+ * and the indexes always agree with the characters, while reads never lock and check every candidate an index gives
+ * them against the whole filter, so a read racing with a write never returns a character that doesn't match.
+ */
+@Component
+@Profile("in-memory")
+@Slf4j
+public class CharacterInMemoryAdapter implements IStoreCharacters {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final ConcurrentSkipListMap<ObjectId, Character> characters = new ConcurrentSkipListMap<>();
+    private final Map<String, ObjectId> idsByName = new ConcurrentHashMap<>();
+    private final List<AttributeIndex> indexes = List.of(
+            new AttributeIndex(Character::getRole, CharacterFilter::getRole),
+            new AttributeIndex(Character::getSchool, CharacterFilter::getSchool),
+            new AttributeIndex(Character::getHouse, CharacterFilter::getHouse),
+            new AttributeIndex(Character::getPatronus, CharacterFilter::getPatronus));
+
+    private final Object writes = new Object();
+
+    @Override
+    public Character create(Character character) throws ErrorStoringCharacterException {
+        try {
+            return insert(character.withId(new ObjectId().toString()));
+        } catch (Exception e) {
+            log.error("Error creating character - Character Name: {}", character.getName(), e);
+            throw new ErrorStoringCharacterException("Error creating characters", e);
+        }
+    }
+
+    @Override
+    public List<CharacterCreationResult> createAll(List<Character> toCreate) {
+        List<CharacterCreationResult> results = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++) {
+            try {
+                results.add(CharacterCreationResult.success(i, insert(toCreate.get(i).withId(new ObjectId().toString()))));
+            } catch (DuplicateKeyException e) {
+                results.add(CharacterCreationResult.failure(i, toCreate.get(i), e.getMessage()));
+            }
+        }
+
+        long failed = results.stream().filter(result -> !result.isSuccess()).count();
+        if (failed > 0)
+            log.warn("Some characters could not be created in batch - Failed: {} of {}", failed, toCreate.size());
+        return results;
+    }
+
+    @Override
+    public Character update(Character character) throws ErrorStoringCharacterException {
+        try {
+            //Updating an unknown id creates it, as saving it to MongoDB would
+            return insert(character);
+        } catch (Exception e) {
+            log.error("Error updating character - Character Id: {}", character.getId(), e);
+            throw new ErrorStoringCharacterException("Error updating character", e);
+        }
+    }
+
+    @Override
+    public Optional<Character> patch(String id, CharacterPatch patch) throws ErrorStoringCharacterException {
+        try {
+            synchronized (writes) {
+                Character current = characters.get(new ObjectId(id));
+                return current == null ? Optional.empty() : Optional.of(insert(patch.applyTo(current)));
+            }
+        } catch (Exception e) {
+            log.error("Error patching character - Character Id: {}", id, e);
+            throw new ErrorStoringCharacterException("Error patching character", e);
+        }
+    }
+
+    @Override
+    public void delete(String id) throws ErrorDeletingCharacterException {
+        try {
+            ObjectId objectId = new ObjectId(id);
+            synchronized (writes) {
+                Character deleted = characters.remove(objectId);
+                if (deleted != null) unindex(objectId, deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error deleting character - Character Id: {}", id, e);
+            throw new ErrorDeletingCharacterException("Error deleting character", e);
+        }
+    }
+
+    @Override
+    public long updateAll(CharacterFilter filter, CharacterPatch patch) throws ErrorStoringCharacterException {
+        try {
+            synchronized (writes) {
+                List<Character> matching = findBy(filter, CharacterProjection.ALL);
+                matching.forEach(character -> insert(patch.applyTo(character)));
+                return matching.size();
+            }
+        } catch (Exception e) {
+            log.error("Error updating characters by filter", e);
+            throw new ErrorStoringCharacterException("Error updating characters", e);
+        }
+    }
+
+    @Override
+    public long deleteAll(CharacterFilter filter) throws ErrorDeletingCharacterException {
+        try {
+            synchronized (writes) {
+                List<Character> matching = findBy(filter, CharacterProjection.ALL);
+                for (Character character : matching) {
+                    ObjectId id = new ObjectId(character.getId());
+                    characters.remove(id);
+                    unindex(id, character);
+                }
+                return matching.size();
+            }
+        } catch (Exception e) {
+            log.error("Error deleting characters by filter", e);
+            throw new ErrorDeletingCharacterException("Error deleting characters", e);
+        }
+    }
+
+    @Override
+    public Page<Character> findAll(int page) throws ErrorSearchingCharactersException {
+        try {
+            PageRequest request = PageRequest.of(page, PAGE_SIZE);
+            List<Character> content = characters.values().stream()
+                    .skip(request.getOffset())
+                    .limit(PAGE_SIZE)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, request, characters.size());
+        } catch (Exception e) {
+            log.error("Error searching all characters - Page: {}", page, e);
+            throw new ErrorSearchingCharactersException(e);
+        }
+    }
+
+    @Override
+    public CharacterSlice findAll(String after, int size, CharacterProjection projection) throws ErrorSearchingCharactersException {
+        try {
+            NavigableMap<ObjectId, Character> remaining = after == null
+                    ? characters
+                    : characters.tailMap(CharacterQueries.fromCursor(after), false);
+
+            //Reads one character past the slice size, to tell if there is a next slice
+            List<Map.Entry<ObjectId, Character>> read = remaining.entrySet().stream()
+                    .limit(size + 1L)
+                    .collect(Collectors.toList());
+            boolean hasNext = read.size() > size;
+            List<Map.Entry<ObjectId, Character>> slice = hasNext ? read.subList(0, size) : read;
+
+            return CharacterSlice.builder()
+                    .content(slice.stream().map(Map.Entry::getValue).map(projection::apply).collect(Collectors.toList()))
+                    .size(slice.size())
+                    .next(hasNext ? CharacterQueries.toCursor(slice.get(slice.size() - 1).getKey()) : null)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error searching all characters - After: {}, Size: {}, Fields: {}", after, size, projection, e);
+            throw new ErrorSearchingCharactersException(e);
+        }
+    }
+
+    @Override
+    public Optional<Character> findBy(String id) throws ErrorSearchingCharactersException {
+        try {
+            return Optional.ofNullable(characters.get(new ObjectId(id)));
+        } catch (Exception e) {
+            log.error("Error searching characters - Id: {}", id, e);
+            throw new ErrorSearchingCharactersException(e);
+        }
+    }
+
+    @Override
+    public void streamAll(int batchSize, Predicate<List<Character>> batchConsumer) {
+        List<Character> batch = new ArrayList<>(batchSize);
+        for (Character character : characters.values()) {
+            batch.add(character);
+            if (batch.size() == batchSize) {
+                if (!batchConsumer.test(batch)) return;
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) batchConsumer.test(batch);
+    }
+
+    @Override
+    public List<Character> findBy(CharacterFilter filter, CharacterProjection projection) {
+        //Starts from the most selective index the filter can use, or from every character when it can't use any
+        Stream<Character> candidates = indexes.stream()
+                .map(index -> index.candidates(filter))
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(Set::size))
+                .map(ids -> ids.stream().sorted().map(characters::get).filter(Objects::nonNull))
+                .orElseGet(() -> characters.values().stream());
+
+        return candidates
+                .filter(character -> matches(filter, character))
+                .map(projection::apply)
+                .collect(Collectors.toList());
+    }
+
+    //Stores a copy, so that callers changing the character they handed back don't change it behind the indexes' back
+    private Character insert(Character toStore) {
+        ObjectId id = new ObjectId(toStore.getId());
+        synchronized (writes) {
+            ObjectId holder = toStore.getName() == null ? null : idsByName.get(toStore.getName());
+            if (holder != null && !holder.equals(id))
+                throw new DuplicateKeyException("E11000 duplicate key error - name: " + toStore.getName());
+
+            Character current = characters.get(id);
+            Character stored = toStore.withVersion(current == null ? 1L : current.getVersion() + 1);
+            characters.put(id, stored);
+            if (current != null) unindex(id, current);
+            index(id, stored);
+            return stored.toBuilder().build();
+        }
+    }
+
+    private void index(ObjectId id, Character character) {
+        if (character.getName() != null) idsByName.put(character.getName(), id);
+        indexes.forEach(index -> index.add(id, character));
+    }
+
+    private void unindex(ObjectId id, Character character) {
+        if (character.getName() != null) idsByName.remove(character.getName(), id);
+        indexes.forEach(index -> index.remove(id, character));
+    }
+
+    private static boolean matches(CharacterFilter filter, Character character) {
+        return matchesName(filter, character.getName())
+                && (filter.getRole() == null || filter.getRole().equals(character.getRole()))
+                && (filter.getSchool() == null || filter.getSchool().equals(character.getSchool()))
+                && (filter.getHouse() == null || filter.getHouse().equals(character.getHouse()))
+                && (filter.getPatronus() == null || filter.getPatronus().equals(character.getPatronus()));
+    }
+
+    private static boolean matchesName(CharacterFilter filter, String name) {
+        if (filter.getName() == null) return true;
+        if (name == null) return false;
+
+        switch (filter.getNameMatch()) {
+            case PREFIX:
+                return name.startsWith(filter.getName());
+            case EXACT_IGNORE_CASE:
+                return name.equalsIgnoreCase(filter.getName());
+            default:
+                return name.contains(filter.getName());
+        }
+    }
+
+    /**
+     * Ids of the characters holding each value of an attribute
+     */
+    private static class AttributeIndex {
+        private final Function<Character, String> attribute;
+        private final Function<CharacterFilter, String> filtered;
+        private final Map<String, Set<ObjectId>> ids = new ConcurrentHashMap<>();
+
+        AttributeIndex(Function<Character, String> attribute, Function<CharacterFilter, String> filtered) {
+            this.attribute = attribute;
+            this.filtered = filtered;
+        }
+
+        //Null when the filter doesn't constrain this attribute
+        Set<ObjectId> candidates(CharacterFilter filter) {
+            String value = filtered.apply(filter);
+            return value == null ? null : ids.getOrDefault(value, Set.of());
+        }
+
+        void add(ObjectId id, Character character) {
+            String value = attribute.apply(character);
+            if (value != null) ids.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+
+        void remove(ObjectId id, Character character) {
+            String value = attribute.apply(character);
+            if (value == null) return;
+
+            ids.computeIfPresent(value, (v, holders) -> {
+                holders.remove(id);
+                return holders.isEmpty() ? null : holders;
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Characters by id, tagged by house and school so that writes to many characters at once can evict theirs without
+ * walking the cache.
+ * <p>
+ * Tags list every id put since the tag was last evicted, even ids whose entry has since expired or moved to another
+ * house, so evicting a tag may evict a few entries that no longer hold it. Puts and tag evictions exclude each other,
+ * and a character read while a tag eviction ran is not kept, as it may have been read before the write behind it.
+ */
+@Component
+@Profile("!in-memory & !reactive")
+public class CharacterCache {
+
+    private final Cache characters;
+    private final Map<String, Set<String>> idsByTag = new ConcurrentHashMap<>();
+    private final ReadWriteLock tagEvictions = new ReentrantReadWriteLock();
+    private long tagEvictionsCount;
+
+    public CharacterCache(Cache characters) {
+        this.characters = characters;
+    }
+
+    @Autowired(required = true)
+    public CharacterCache(CacheManager cacheManager) {
+        this(cacheManager.getCache("characters"));
+    }
+
+    public Optional<Character> get(String id, Supplier<Optional<Character>> read) {
+        Character cached = characters.get(id, Character.class);
+        if (cached != null) return Optional.of(cached);
+
+        long evictionsBefore = tagEvictionsCount();
+        Optional<Character> found = read.get();
+        found.ifPresent(character -> put(character, evictionsBefore));
+        return found;
+    }
+
+    public void put(Character character) {
+        put(character, -1);
+    }
+
+    public void evict(String id) {
+        characters.evict(id);
+    }
+
+    /**
+     * Evicts every character the filter may match, by its house or else by its school. Filters with neither clear
+     * the whole cache.
+     */
+    public void evictMatching(CharacterFilter filter) {
+        tagEvictions.writeLock().lock();
+        try {
+            tagEvictionsCount++;
+            if (filter.getHouse() != null) evictTagged(tagOf("house", filter.getHouse()));
+            else if (filter.getSchool() != null) evictTagged(tagOf("school", filter.getSchool()));
+            else {
+                idsByTag.clear();
+                characters.clear();
+            }
+        } finally {
+            tagEvictions.writeLock().unlock();
+        }
+    }
+
+    //Only puts characters read after the given count of tag evictions, unless it is negative
+    private void put(Character character, long evictionsBefore) {
+        tagEvictions.readLock().lock();
+        try {
+            if (evictionsBefore >= 0 && evictionsBefore != tagEvictionsCount) return;
+
+            tag(tagOf("house", character.getHouse()), character.getId());
+            tag(tagOf("school", character.getSchool()), character.getId());
+            characters.put(character.getId(), character);
+        } finally {
+            tagEvictions.readLock().unlock();
+        }
+    }
+
+    private long tagEvictionsCount() {
+        tagEvictions.readLock().lock();
+        try {
+            return tagEvictionsCount;
+        } finally {
+            tagEvictions.readLock().unlock();
+        }
+    }
+
+    private void tag(String tag, String id) {
+        if (tag != null) idsByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private void evictTagged(String tag) {
+        Set<String> ids = idsByTag.remove(tag);
+        if (ids != null) ids.forEach(characters::evict);
+    }
+
+    private static String tagOf(String name, String value) {
+        return value == null ? null : name + '=' + value;
+    }
+}
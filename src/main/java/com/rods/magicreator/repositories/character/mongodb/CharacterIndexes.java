@@ -0,0 +1,49 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Indexes backing the dynamic filters of {@link CharacterQueries}. The unique name index is still declared on
+ * {@link CharacterModel} itself. Ensured at startup even when beans are initialized lazily, so that no search runs
+ * before them.
+ */
+@Component
+@Lazy(false)
+@Profile("!in-memory & !reactive")
+@Slf4j
+public class CharacterIndexes {
+
+    static final List<Index> INDEXES = List.of(
+            //Also answers filters on house alone
+            new Index().on("house", Direction.ASC).on("role", Direction.ASC).named("house_role"),
+            //Also answers filters on school alone
+            new Index().on("school", Direction.ASC).on("house", Direction.ASC).named("school_house"),
+            //Also answers filters on role alone
+            new Index().on("role", Direction.ASC).on("school", Direction.ASC).named("role_school"),
+            new Index().on("patronus", Direction.ASC).named("patronus"),
+            new Index().on("name", Direction.ASC).named("name_ci").collation(CharacterQueries.CASE_INSENSITIVE)
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    public CharacterIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(CharacterModel.class);
+        INDEXES.forEach(index -> log.info("Ensured character index {}", indexOperations.ensureIndex(index)));
+    }
+}
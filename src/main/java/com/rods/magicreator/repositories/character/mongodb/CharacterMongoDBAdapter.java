@@ -1,37 +1,61 @@
 package com.rods.magicreator.repositories.character.mongodb;
 
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters;
 import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.*;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Component
+@Profile("!in-memory & !reactive")
 @Slf4j
 public class CharacterMongoDBAdapter implements IStoreCharacters {
 
+    static final long FIRST_VERSION = 1L;
+
     final CharacterRepository repository;
+    final MongoTemplate mongoTemplate;
+    final CharacterCache cache;
+    final CharacterSearchCache searchCache;
+    final Optional<CharacterWriteBehind> writeBehind;
+    final CharacterSearchExplainer explainer;
 
-    public CharacterMongoDBAdapter(CharacterRepository repository) {
+    public CharacterMongoDBAdapter(CharacterRepository repository, MongoTemplate mongoTemplate, CharacterCache cache,
+                                   CharacterSearchCache searchCache, Optional<CharacterWriteBehind> writeBehind, CharacterSearchExplainer explainer) {
         this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.searchCache = searchCache;
+        this.writeBehind = writeBehind;
+        this.explainer = explainer;
     }
 
     @Override
     public Page<Character> findAll(int page) throws ErrorSearchingCharactersException {
         try {
-            return repository.findAll(PageRequest.of(page, 100)).map(this::toCharacter);
+            return repository.findAll(PageRequest.of(page, 100)).map(CharacterMongoDBAdapter::toCharacter);
         } catch (Exception e) {
             log.error("Error searching all characters - Page: {}", page, e);
             throw new ErrorSearchingCharactersException(e);
@@ -39,22 +63,52 @@ public class CharacterMongoDBAdapter implements IStoreCharacters {
     }
 
     @Override
-    @Cacheable(value = "characters", unless = "#result == null")
+    public CharacterSlice findAll(String after, int size, CharacterProjection projection) throws ErrorSearchingCharactersException {
+        try {
+            return toSlice(mongoTemplate.find(CharacterQueries.project(CharacterQueries.slice(after, size), projection), CharacterModel.class), size);
+        } catch (Exception e) {
+            log.error("Error searching all characters - After: {}, Size: {}, Fields: {}", after, size, projection, e);
+            throw new ErrorSearchingCharactersException(e);
+        }
+    }
+
+    @Override
     public Optional<Character> findBy(String id) throws ErrorSearchingCharactersException {
         try {
-            return repository.findById(new ObjectId(id)).map(this::toCharacter);
+            return cache.get(id, () -> repository.findById(new ObjectId(id)).map(CharacterMongoDBAdapter::toCharacter));
         } catch (Exception e) {
             log.error("Error searching characters - Id: {}", id, e);
             throw new ErrorSearchingCharactersException(e);
         }
     }
 
+    @Override
+    public void streamAll(int batchSize, Predicate<List<Character>> batchConsumer) throws ErrorSearchingCharactersException {
+        try (Stream<CharacterModel> models = repository.streamAllBy()) {
+            Iterator<CharacterModel> iterator = models.iterator();
+            List<Character> batch = new ArrayList<>(batchSize);
+
+            while (iterator.hasNext()) {
+                batch.add(toCharacter(iterator.next()));
+                if (batch.size() == batchSize) {
+                    if (!batchConsumer.test(batch)) return;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!batch.isEmpty()) batchConsumer.test(batch);
+        } catch (Exception e) {
+            log.error("Error streaming all characters - Batch size: {}", batchSize, e);
+            throw new ErrorSearchingCharactersException(e);
+        }
+    }
+
     @Override
     public Character create(Character character) throws ErrorStoringCharacterException {
         try {
-            return toCharacter(
-                    repository.save(fromCharacter(character))
-            );
+            Character created = toCharacter(repository.save(fromCharacter(character).toBuilder().version(FIRST_VERSION).build()));
+            searchCache.invalidate(created);
+            return created;
         } catch (Exception e) {
             log.error("Error creating character - Character Name: {}", character.getName(), e);
             throw new ErrorStoringCharacterException("Error creating characters", e);
@@ -62,30 +116,68 @@ public class CharacterMongoDBAdapter implements IStoreCharacters {
     }
 
     @Override
-    public List<Character> findBy(String name, String role, String school, String house, String patronus) throws ErrorSearchingCharactersException {
+    public List<CharacterCreationResult> createAll(List<Character> characters) throws ErrorStoringCharacterException {
+        if (characters.isEmpty()) return Collections.emptyList();
+
+        //Ids are assigned upfront because bulk inserts don't hand generated ids back to the mapped models
+        List<CharacterModel> models = characters.stream()
+                .map(character -> fromCharacter(character).toBuilder().id(new ObjectId()).version(FIRST_VERSION).build())
+                .collect(Collectors.toList());
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, CharacterModel.class)
+                    .insert(models)
+                    .execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            log.warn("Some characters could not be created in batch - Failed: {} of {}", failures.size(), models.size());
+        } catch (Exception e) {
+            log.error("Error creating characters in batch - Batch size: {}", characters.size(), e);
+            throw new ErrorStoringCharacterException("Error creating characters", e);
+        }
+
+        List<CharacterCreationResult> results = IntStream.range(0, models.size())
+                .mapToObj(i -> failures.containsKey(i)
+                        ? CharacterCreationResult.failure(i, characters.get(i), failures.get(i))
+                        : CharacterCreationResult.success(i, toCharacter(models.get(i))))
+                .collect(Collectors.toList());
+        searchCache.invalidate(results.stream()
+                .filter(CharacterCreationResult::isSuccess)
+                .map(CharacterCreationResult::getCharacter)
+                .toArray(Character[]::new));
+        return results;
+    }
+
+    @Override
+    public List<Character> findBy(CharacterFilter filter, CharacterProjection projection) throws ErrorSearchingCharactersException {
         try {
-            Example<CharacterModel> example = Example.of(
-                    buildExample(name, role, school, house, patronus),
-                    matchNameContainingAndEverythingElseMustBeExact()
-            );
-
-            return repository.findAll(example).stream()
-                    .map(this::toCharacter)
-                    .collect(Collectors.toList());
+            return searchCache.get(filter, projection, () -> {
+                Query query = CharacterQueries.project(CharacterQueries.byFilter(filter), projection);
+                long started = System.nanoTime();
+                List<Character> found = mongoTemplate.find(query, CharacterModel.class).stream()
+                        .map(CharacterMongoDBAdapter::toCharacter)
+                        .collect(Collectors.toList());
+                explainer.explainIfSlow(query, System.nanoTime() - started);
+                return found;
+            });
         } catch (Exception e) {
-            log.error("Error searching character by dynamic filters - Name: {}, Role: {}, School: {}, House: {}, Patronus: {}",
-                    name, role, school, house, patronus, e);
+            log.error("Error searching character by dynamic filters - Name: {} ({}), Role: {}, School: {}, House: {}, Patronus: {}",
+                    filter.getName(), filter.getNameMatch(), filter.getRole(), filter.getSchool(), filter.getHouse(), filter.getPatronus(), e);
             throw new ErrorSearchingCharactersException(e);
         }
     }
 
     @Override
-    @CachePut(value = "characters", key = "#character.id")
     public Character update(Character character) throws ErrorStoringCharacterException {
         try {
-            return toCharacter(
-                    repository.save(fromCharacter(character))
-            );
+            //Replaces the character the same way saving it does, but hands back what it replaced to retire its searches
+            CharacterModel replaced = mongoTemplate.findAndModify(CharacterQueries.byId(character.getId()), CharacterQueries.replacing(character),
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), CharacterModel.class);
+            Character updated = toCharacter(fromCharacter(character)).withVersion(nextVersion(replaced));
+            cache.put(updated);
+            searchCache.invalidate(replaced == null ? null : toCharacter(replaced), updated);
+            return updated;
         } catch (Exception e) {
             log.error("Error updating character - Character Id: {}", character.getId(), e);
             throw new ErrorStoringCharacterException("Error updating character", e);
@@ -93,27 +185,117 @@ public class CharacterMongoDBAdapter implements IStoreCharacters {
     }
 
     @Override
-    @CacheEvict(value = "characters", key = "#id")
+    public Character createLater(Character character) throws ErrorStoringCharacterException {
+        //Ids are assigned upfront, so that callers can look the character up once it is written
+        return writeBehind().write(character.withId(new ObjectId().toString()));
+    }
+
+    @Override
+    public Character updateLater(Character character) throws ErrorStoringCharacterException {
+        return writeBehind().write(character);
+    }
+
+    //Writing behind is opt-in, so its queue and flusher thread only exist when it is enabled
+    private CharacterWriteBehind writeBehind() throws WritingLaterDisabledException {
+        return writeBehind.orElseThrow(WritingLaterDisabledException::new);
+    }
+
+    @Override
+    public Optional<Character> patch(String id, CharacterPatch patch) throws ErrorStoringCharacterException {
+        try {
+            //Only the changed fields are written, and the character they were written over is enough to tell the result
+            CharacterModel patched = mongoTemplate.findAndModify(CharacterQueries.byId(id), CharacterQueries.patching(patch),
+                    FindAndModifyOptions.options().returnNew(false), CharacterModel.class);
+            if (patched == null) return Optional.empty();
+
+            Character previous = toCharacter(patched);
+            Character current = patch.applyTo(previous).withVersion(nextVersion(patched));
+            cache.put(current);
+            searchCache.invalidate(previous, current);
+            return Optional.of(current);
+        } catch (Exception e) {
+            log.error("Error patching character - Character Id: {}", id, e);
+            throw new ErrorStoringCharacterException("Error patching character", e);
+        }
+    }
+
+    @Override
     public void delete(String id) throws ErrorDeletingCharacterException {
         try {
-            repository.deleteById(new ObjectId(id));
+            CharacterModel deleted = mongoTemplate.findAndRemove(CharacterQueries.byId(id), CharacterModel.class);
+            cache.evict(id);
+            if (deleted != null) searchCache.invalidate(toCharacter(deleted));
         } catch (Exception e) {
             log.error("Error deleting character - Character Id: {}", id, e);
             throw new ErrorDeletingCharacterException("Error creating characters", e);
         }
     }
 
-    private CharacterModel buildExample(String name, String role, String school, String house, String patronus) {
-        return CharacterModel.builder()
-                .name(name)
-                .role(role)
-                .school(school)
-                .house(house)
-                .patronus(patronus)
+    @Override
+    public long updateAll(CharacterFilter filter, CharacterPatch patch) throws ErrorStoringCharacterException {
+        try {
+            long updated = mongoTemplate.updateMulti(CharacterQueries.byFilter(filter), CharacterQueries.patching(patch), CharacterModel.class)
+                    .getModifiedCount();
+            evictMatching(filter);
+            return updated;
+        } catch (Exception e) {
+            log.error("Error updating characters by filter - Name: {} ({}), Role: {}, School: {}, House: {}, Patronus: {}",
+                    filter.getName(), filter.getNameMatch(), filter.getRole(), filter.getSchool(), filter.getHouse(), filter.getPatronus(), e);
+            throw new ErrorStoringCharacterException("Error updating characters", e);
+        }
+    }
+
+    @Override
+    public long deleteAll(CharacterFilter filter) throws ErrorDeletingCharacterException {
+        try {
+            long deleted = mongoTemplate.remove(CharacterQueries.byFilter(filter), CharacterModel.class).getDeletedCount();
+            evictMatching(filter);
+            return deleted;
+        } catch (Exception e) {
+            log.error("Error deleting characters by filter - Name: {} ({}), Role: {}, School: {}, House: {}, Patronus: {}",
+                    filter.getName(), filter.getNameMatch(), filter.getRole(), filter.getSchool(), filter.getHouse(), filter.getPatronus(), e);
+            throw new ErrorDeletingCharacterException("Error deleting characters", e);
+        }
+    }
+
+    @Override
+    public long renameHouse(String houseId, String houseName) throws ErrorStoringCharacterException {
+        try {
+            long updated = mongoTemplate.updateMulti(CharacterQueries.byStaleHouseName(houseId, houseName),
+                    CharacterQueries.patching(CharacterPatch.builder().houseName(houseName).build()), CharacterModel.class)
+                    .getModifiedCount();
+            if (updated > 0) evictMatching(CharacterFilter.builder().house(houseId).build());
+            return updated;
+        } catch (Exception e) {
+            log.error("Error renaming house of characters - House: {}, Name: {}", houseId, houseName, e);
+            throw new ErrorStoringCharacterException("Error renaming house of characters", e);
+        }
+    }
+
+    //Which characters a bulk write changed isn't known, only what the filter says about them
+    private void evictMatching(CharacterFilter filter) {
+        cache.evictMatching(filter);
+        searchCache.invalidateAll();
+    }
+
+    //Incrementing a missing version starts it at one, be it for a new character or one stored before versions existed
+    static long nextVersion(CharacterModel replaced) {
+        return replaced == null || replaced.getVersion() == null ? FIRST_VERSION : replaced.getVersion() + 1;
+    }
+
+    //Queries read one document past the slice size, which tells if there is a next slice without counting the collection
+    static CharacterSlice toSlice(List<CharacterModel> models, int size) {
+        boolean hasNext = models.size() > size;
+        List<CharacterModel> slice = hasNext ? models.subList(0, size) : models;
+
+        return CharacterSlice.builder()
+                .content(slice.stream().map(CharacterMongoDBAdapter::toCharacter).collect(Collectors.toList()))
+                .size(slice.size())
+                .next(hasNext ? CharacterQueries.toCursor(slice.get(slice.size() - 1).getId()) : null)
                 .build();
     }
 
-    private Character toCharacter(CharacterModel model) {
+    static Character toCharacter(CharacterModel model) {
         return Character.builder()
                 .id(model.getId().toString())
                 .name(model.getName())
@@ -122,10 +304,11 @@ public class CharacterMongoDBAdapter implements IStoreCharacters {
                 .house(model.getHouse())
                 .houseName(model.getHouseName())
                 .patronus(model.getPatronus())
+                .version(model.getVersion())
                 .build();
     }
 
-    private CharacterModel fromCharacter(Character character) {
+    static CharacterModel fromCharacter(Character character) {
         return CharacterModel.builder()
                 .id(character.getId() != null ? new ObjectId(character.getId()) : null)
                 .name(character.getName())
@@ -134,13 +317,7 @@ public class CharacterMongoDBAdapter implements IStoreCharacters {
                 .house(character.getHouse())
                 .houseName(character.getHouseName())
                 .patronus(character.getPatronus())
+                .version(character.getVersion())
                 .build();
     }
-
-    private ExampleMatcher matchNameContainingAndEverythingElseMustBeExact() {
-        return ExampleMatcher.matching()
-                .withStringMatcher(ExampleMatcher.StringMatcher.EXACT)
-                .withMatcher("name", ExampleMatcher.GenericPropertyMatcher::contains);
-    }
 }
-
@@ -0,0 +1,130 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Translates {@link CharacterFilter CharacterFilters} and slice cursors into MongoDB queries shaped so that
+ * indexes can answer them
+ */
+public final class CharacterQueries {
+
+    public static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private CharacterQueries() {
+    }
+
+    public static Query byFilter(CharacterFilter filter) {
+        Query query = new Query();
+
+        if (filter.getName() != null) {
+            switch (filter.getNameMatch()) {
+                case PREFIX:
+                    //Anchored regexes get tight bounds on the name index
+                    query.addCriteria(Criteria.where("name").regex("^" + Pattern.quote(filter.getName())));
+                    break;
+                case EXACT_IGNORE_CASE:
+                    //Only matches the case-insensitive name index when the query carries the same collation
+                    query.addCriteria(Criteria.where("name").is(filter.getName())).collation(CASE_INSENSITIVE);
+                    break;
+                default:
+                    query.addCriteria(Criteria.where("name").regex(Pattern.quote(filter.getName())));
+            }
+        }
+
+        if (filter.getRole() != null) query.addCriteria(Criteria.where("role").is(filter.getRole()));
+        if (filter.getSchool() != null) query.addCriteria(Criteria.where("school").is(filter.getSchool()));
+        if (filter.getHouse() != null) query.addCriteria(Criteria.where("house").is(filter.getHouse()));
+        if (filter.getPatronus() != null) query.addCriteria(Criteria.where("patronus").is(filter.getPatronus()));
+
+        return query;
+    }
+
+    public static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(new ObjectId(id)));
+    }
+
+    /**
+     * Characters of the house still holding some other name for it, so that renaming a house only writes those
+     */
+    public static Query byStaleHouseName(String houseId, String houseName) {
+        return Query.query(Criteria.where("house").is(houseId).and("houseName").ne(houseName));
+    }
+
+    /**
+     * Replaces every field of the character and increments its version, creating it when its id isn't stored yet.
+     * Fields that are null are removed, as they would be by saving the character.
+     */
+    public static Update replacing(Character character) {
+        Update update = new Update().inc("version", 1);
+        set(update, "name", character.getName());
+        set(update, "role", character.getRole());
+        set(update, "school", character.getSchool());
+        set(update, "house", character.getHouse());
+        set(update, "houseName", character.getHouseName());
+        set(update, "patronus", character.getPatronus());
+        return update;
+    }
+
+    /**
+     * Sets only the fields the patch changes and increments the version
+     */
+    public static Update patching(CharacterPatch patch) {
+        Update update = new Update().inc("version", 1);
+        if (patch.getName() != null) update.set("name", patch.getName());
+        if (patch.getRole() != null) update.set("role", patch.getRole());
+        if (patch.getSchool() != null) update.set("school", patch.getSchool());
+        if (patch.getHouse() != null) update.set("house", patch.getHouse());
+        if (patch.getHouseName() != null) update.set("houseName", patch.getHouseName());
+        if (patch.getPatronus() != null) update.set("patronus", patch.getPatronus());
+        return update;
+    }
+
+    private static void set(Update update, String field, String value) {
+        if (value == null) update.unset(field);
+        else update.set(field, value);
+    }
+
+    /**
+     * Has only the projected fields read, leaving everything else out of MongoDB's reply
+     */
+    public static Query project(Query query, CharacterProjection projection) {
+        if (!projection.isAll())
+            projection.getFields().forEach(field -> query.fields().include(field));
+        return query;
+    }
+
+    /**
+     * Reads one document past the slice size, so that callers can tell if there is a next slice
+     */
+    public static Query slice(String after, int size) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(size + 1);
+        if (after != null) query.addCriteria(Criteria.where("_id").gt(fromCursor(after)));
+        return query;
+    }
+
+    public static String toCursor(ObjectId id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toByteArray());
+    }
+
+    public static ObjectId fromCursor(String cursor) {
+        try {
+            return new ObjectId(Base64.getUrlDecoder().decode(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor provided as argument - Cursor: " + cursor, e);
+        }
+    }
+}
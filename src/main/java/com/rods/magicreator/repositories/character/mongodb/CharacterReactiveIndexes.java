@@ -0,0 +1,38 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Ensures the {@link CharacterIndexes} through the reactive driver, the only one connected in the reactive mode.
+ * Startup waits for them, as it runs before any request is served, so no search runs before them either.
+ */
+@Component
+@Lazy(false)
+@Profile("reactive")
+@Slf4j
+public class CharacterReactiveIndexes {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CharacterReactiveIndexes(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        ReactiveIndexOperations indexOperations = mongoTemplate.indexOps(CharacterModel.class);
+        Flux.fromIterable(CharacterIndexes.INDEXES)
+                .concatMap(indexOperations::ensureIndex)
+                .doOnNext(index -> log.info("Ensured character index {}", index))
+                .blockLast();
+    }
+}
@@ -0,0 +1,111 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.ports.out.IReactivelyStoreCharacters;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorDeletingCharacterException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorSearchingCharactersException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorStoringCharacterException;
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link CharacterMongoDBAdapter}, sharing its mappings and queries. It doesn't go
+ * through the characters cache, as Spring's cache annotations can't handle reactive types yet.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class CharacterReactiveMongoDBAdapter implements IReactivelyStoreCharacters {
+
+    private final ReactiveCharacterRepository repository;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CharacterReactiveMongoDBAdapter(ReactiveCharacterRepository repository, ReactiveMongoTemplate mongoTemplate) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<CharacterSlice> findAll(String after, int size) {
+        return Mono.defer(() -> mongoTemplate.find(CharacterQueries.slice(after, size), CharacterModel.class).collectList())
+                .map(models -> CharacterMongoDBAdapter.toSlice(models, size))
+                .doOnError(e -> log.error("Error searching all characters - After: {}, Size: {}", after, size, e))
+                .onErrorMap(ErrorSearchingCharactersException::new);
+    }
+
+    @Override
+    public Flux<Character> findAll() {
+        return repository.findAll()
+                .map(CharacterMongoDBAdapter::toCharacter)
+                .doOnError(e -> log.error("Error streaming all characters", e))
+                .onErrorMap(ErrorSearchingCharactersException::new);
+    }
+
+    @Override
+    public Mono<Character> findBy(String id) {
+        return Mono.defer(() -> repository.findById(new ObjectId(id)))
+                .map(CharacterMongoDBAdapter::toCharacter)
+                .doOnError(e -> log.error("Error searching characters - Id: {}", id, e))
+                .onErrorMap(ErrorSearchingCharactersException::new);
+    }
+
+    @Override
+    public Flux<Character> findBy(CharacterFilter filter) {
+        return mongoTemplate.find(CharacterQueries.byFilter(filter), CharacterModel.class)
+                .map(CharacterMongoDBAdapter::toCharacter)
+                .doOnError(e -> log.error("Error searching character by dynamic filters - Name: {} ({}), Role: {}, School: {}, House: {}, Patronus: {}",
+                        filter.getName(), filter.getNameMatch(), filter.getRole(), filter.getSchool(), filter.getHouse(), filter.getPatronus(), e))
+                .onErrorMap(ErrorSearchingCharactersException::new);
+    }
+
+    @Override
+    public Mono<Character> create(Character character) {
+        return Mono.defer(() -> repository.save(CharacterMongoDBAdapter.fromCharacter(character).toBuilder()
+                        .version(CharacterMongoDBAdapter.FIRST_VERSION)
+                        .build()))
+                .map(CharacterMongoDBAdapter::toCharacter)
+                .doOnError(e -> log.error("Error creating character - Character Name: {}", character.getName(), e))
+                .onErrorMap(e -> new ErrorStoringCharacterException("Error creating characters", e));
+    }
+
+    @Override
+    public Mono<Character> update(Character character) {
+        return Mono.defer(() -> mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(new ObjectId(character.getId()))),
+                        CharacterQueries.replacing(character),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        CharacterModel.class))
+                .map(CharacterMongoDBAdapter::toCharacter)
+                .doOnError(e -> log.error("Error updating character - Character Id: {}", character.getId(), e))
+                .onErrorMap(e -> new ErrorStoringCharacterException("Error updating character", e));
+    }
+
+    @Override
+    public Mono<Void> delete(String id) {
+        return Mono.defer(() -> repository.deleteById(new ObjectId(id)))
+                .doOnError(e -> log.error("Error deleting character - Character Id: {}", id, e))
+                .onErrorMap(e -> new ErrorDeletingCharacterException("Error deleting character", e));
+    }
+
+    @Override
+    public Mono<Long> renameHouse(String houseId, String houseName) {
+        return Mono.defer(() -> mongoTemplate.updateMulti(CharacterQueries.byStaleHouseName(houseId, houseName),
+                        CharacterQueries.patching(CharacterPatch.builder().houseName(houseName).build()), CharacterModel.class))
+                .map(UpdateResult::getModifiedCount)
+                .doOnError(e -> log.error("Error renaming house of characters - House: {}, Name: {}", houseId, houseName, e))
+                .onErrorMap(e -> new ErrorStoringCharacterException("Error renaming house of characters", e));
+    }
+}
@@ -2,9 +2,18 @@ package com.rods.magicreator.repositories.character.mongodb;
 
 import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface CharacterRepository extends MongoRepository<CharacterModel, ObjectId> {
+
+    //Backed by a server-side cursor, so callers must close the stream once they are done with it
+    @Query(value = "{}", sort = "{ _id : 1 }")
+    @Meta(cursorBatchSize = 500)
+    Stream<CharacterModel> streamAllBy();
 }
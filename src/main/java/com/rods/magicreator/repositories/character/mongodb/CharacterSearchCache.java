@@ -0,0 +1,128 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Results of dynamic filter searches, kept until a write may have changed them.
+ * <p>
+ * Every role, school, house and patronus value has a generation, bumped whenever a character holding that value is
+ * written, before or after the write. Search keys carry the generations of the values they filter by, so a write
+ * moves every search it could affect to a new key and old results are never read again, just left to expire.
+ * Searches filtering by none of those values (by name only, or by nothing) rely on a generation bumped by every write.
+ * Generations are kept in a fixed number of stripes, values hashing to the same one sharing it, so that they take the
+ * same memory however varied characters are. Sharing only ever retires more searches than needed.
+ * <p>
+ * Generations are read before searching, so a search racing with a write can only ever store its result under the
+ * key the write has just retired. Writes whose characters aren't known retire every search at once, by moving all
+ * keys to a new epoch.
+ */
+@Component
+@Profile("!in-memory & !reactive")
+public class CharacterSearchCache {
+
+    private static final String ANY_WRITE = "*";
+    private static final int STRIPES = 4096;
+
+    private final Cache searches;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+
+    public CharacterSearchCache(Cache searches) {
+        this.searches = searches;
+    }
+
+    @Autowired(required = true)
+    public CharacterSearchCache(CacheManager cacheManager) {
+        this(cacheManager.getCache("characterSearches"));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Character> get(CharacterFilter filter, CharacterProjection projection, Supplier<List<Character>> search) {
+        String key = projection + "|" + key(filter);
+
+        List<Character> cached = searches.get(key, List.class);
+        if (cached != null) return cached;
+
+        List<Character> found = List.copyOf(search.get());
+        searches.put(key, found);
+        return found;
+    }
+
+    /**
+     * Retires every search the given characters match. Both versions of an updated character must be given, as
+     * searches matching either may have changed.
+     */
+    public void invalidate(Character... written) {
+        for (Character character : written) {
+            if (character == null) continue;
+            bump(attribute("role", character.getRole()));
+            bump(attribute("school", character.getSchool()));
+            bump(attribute("house", character.getHouse()));
+            bump(attribute("patronus", character.getPatronus()));
+        }
+        bump(ANY_WRITE);
+    }
+
+    /**
+     * Retires every search, for writes whose characters aren't known
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        searches.clear();
+    }
+
+    String key(CharacterFilter filter) {
+        StringBuilder key = new StringBuilder().append(epoch.get()).append('|');
+        if (filter.getName() != null)
+            key.append(filter.getNameMatch()).append(':').append(filter.getName().length()).append(':').append(filter.getName());
+
+        int filteredValues = append(key, "role", filter.getRole())
+                + append(key, "school", filter.getSchool())
+                + append(key, "house", filter.getHouse())
+                + append(key, "patronus", filter.getPatronus());
+
+        if (filteredValues == 0)
+            key.append('|').append(ANY_WRITE).append('@').append(generation(ANY_WRITE));
+
+        return key.toString();
+    }
+
+    //Values are length-prefixed so that no value can be crafted to look like another filter
+    private int append(StringBuilder key, String name, String value) {
+        if (value == null) return 0;
+
+        String attribute = attribute(name, value);
+        key.append('|').append(name).append(':').append(value.length()).append(':').append(value)
+                .append('@').append(generation(attribute));
+        return 1;
+    }
+
+    private long generation(String attribute) {
+        return generations.get(stripe(attribute));
+    }
+
+    private void bump(String attribute) {
+        if (attribute != null)
+            generations.incrementAndGet(stripe(attribute));
+    }
+
+    private static int stripe(String attribute) {
+        return Math.floorMod(attribute.hashCode(), STRIPES);
+    }
+
+    private static String attribute(String name, String value) {
+        return value == null ? null : name + '=' + value;
+    }
+}
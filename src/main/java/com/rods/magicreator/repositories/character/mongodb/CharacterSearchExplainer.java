@@ -0,0 +1,148 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import com.rods.magicreator.support.MongoCommandMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asks MongoDB how it planned the dynamic filter searches that were slow, and warns about those it answered by
+ * scanning the whole collection, which is what a search no index fits anymore looks like.
+ * <p>
+ * Explains run in the background, one at a time, and each filter shape is explained at most once per interval, so
+ * a burst of slow searches doesn't turn into a burst of explains. Explains that can't be run right away are dropped.
+ */
+@Component
+@Profile("!in-memory & !reactive")
+@Slf4j
+public class CharacterSearchExplainer {
+
+    private final MongoTemplate mongoTemplate;
+    private final long slowThresholdNanos;
+    private final long intervalNanos;
+    private final Executor explains;
+    private final Map<String, Long> lastExplainedAt = new ConcurrentHashMap<>();
+    private final Counter collectionScans;
+
+    public CharacterSearchExplainer(MongoTemplate mongoTemplate, Duration slowThreshold, Duration interval, Executor explains, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.explains = explains;
+        this.collectionScans = Counter.builder("characters.search.collscans")
+                .description("Slow character searches MongoDB answered by scanning the whole collection")
+                .register(meterRegistry);
+    }
+
+    @Autowired(required = true)
+    public CharacterSearchExplainer(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                    @Value("${mongodb.slow-command-threshold:PT0.1S}") Duration slowThreshold,
+                                    @Value("${mongodb.explain-interval:PT10M}") Duration interval) {
+        this(mongoTemplate, slowThreshold, interval, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "character-search-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy()), meterRegistry);
+    }
+
+    public void explainIfSlow(Query query, long elapsedNanos) {
+        if (elapsedNanos < slowThresholdNanos) return;
+
+        String shape = MongoCommandMetrics.shapeOf(query.getQueryObject().toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry()));
+        long now = System.nanoTime();
+        AtomicBoolean due = new AtomicBoolean();
+        lastExplainedAt.compute(shape, (s, last) -> {
+            if (last != null && now - last < intervalNanos) return last;
+            due.set(true);
+            return now;
+        });
+
+        if (due.get()) explains.execute(() -> report(query, shape, elapsedNanos));
+    }
+
+    public Document explain(Query query) {
+        return mongoTemplate.execute(CharacterModel.class, collection -> {
+            FindIterable<Document> find = collection.find(query.getQueryObject())
+                    .projection(query.getFieldsObject())
+                    .sort(query.getSortObject());
+            query.getCollation().ifPresent(collation -> find.collation(collation.toMongoCollation()));
+            if (query.getLimit() > 0) find.limit(query.getLimit());
+            return find.explain(ExplainVerbosity.QUERY_PLANNER);
+        });
+    }
+
+    //Sharded plans nest a winning plan for each shard, so every stage under the winning one is looked at
+    public static boolean scansCollection(Document explained) {
+        return stagesOf(winningPlanOf(explained)).contains("COLLSCAN");
+    }
+
+    public static List<String> indexesUsedBy(Document explained) {
+        List<String> indexes = new ArrayList<>();
+        collect(winningPlanOf(explained), "indexName", indexes);
+        return indexes;
+    }
+
+    private void report(Query query, String shape, long elapsedNanos) {
+        try {
+            Document explained = explain(query);
+            long tookMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+            if (scansCollection(explained)) {
+                collectionScans.increment();
+                log.warn("Slow character search scanned the whole collection - Took: {} ms, Filter: {}, Plan: {}",
+                        tookMillis, shape, winningPlanOf(explained).toJson());
+            } else {
+                log.info("Slow character search used indexes - Took: {} ms, Filter: {}, Indexes: {}", tookMillis, shape, indexesUsedBy(explained));
+            }
+        } catch (Exception e) {
+            log.warn("Could not explain slow character search - Filter: {}", shape, e);
+        }
+    }
+
+    private static Document winningPlanOf(Document explained) {
+        Document queryPlanner = explained.get("queryPlanner", Document.class);
+        Document winningPlan = queryPlanner == null ? null : queryPlanner.get("winningPlan", Document.class);
+        return winningPlan == null ? new Document() : winningPlan;
+    }
+
+    private static List<String> stagesOf(Document plan) {
+        List<String> stages = new ArrayList<>();
+        collect(plan, "stage", stages);
+        return stages;
+    }
+
+    private static void collect(Object value, String key, List<String> found) {
+        if (value instanceof Document) {
+            ((Document) value).forEach((name, nested) -> {
+                if (name.equals(key) && nested instanceof String) found.add((String) nested);
+                else collect(nested, key, found);
+            });
+        } else if (value instanceof List) {
+            ((List<?>) value).forEach(nested -> collect(nested, key, found));
+        }
+    }
+}
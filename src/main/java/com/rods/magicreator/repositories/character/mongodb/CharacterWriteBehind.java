@@ -0,0 +1,104 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorStoringCharacterException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.TooManyPendingWritesException;
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import com.rods.magicreator.support.WriteBehindQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acknowledges character writes before making them, and makes them in unordered bulk upserts of many characters at
+ * once. Only the last of successive writes to the same character is made.
+ * <p>
+ * A write failing in MongoDB, for instance one taking a name some other character already has, is retried with the
+ * next batches and, failing every attempt allowed, given up on and logged, as whoever made it has long been answered.
+ * Writes still pending when the application stops are flushed before it
+ * does, for as long as the shutdown timeout allows.
+ * <p>
+ * Only created when characters.write-behind.enabled is set, as most deployments never ask for it.
+ */
+@Component
+@Profile("!in-memory & !reactive")
+@ConditionalOnProperty(name = "characters.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class CharacterWriteBehind {
+
+    private final MongoTemplate mongoTemplate;
+    private final CharacterCache cache;
+    private final CharacterSearchCache searchCache;
+    private final Duration offerTimeout;
+    private final Duration shutdownTimeout;
+    private final WriteBehindQueue<Character> queue;
+
+    public CharacterWriteBehind(MongoTemplate mongoTemplate, CharacterCache cache, CharacterSearchCache searchCache, MeterRegistry meterRegistry,
+                                @Value("${characters.write-behind.capacity:10000}") int capacity,
+                                @Value("${characters.write-behind.batch-size:500}") int batchSize,
+                                @Value("${characters.write-behind.window:PT0.05S}") Duration window,
+                                @Value("${characters.write-behind.max-attempts:5}") int maxAttempts,
+                                @Value("${characters.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout,
+                                @Value("${characters.write-behind.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = cache;
+        this.searchCache = searchCache;
+        this.offerTimeout = offerTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new WriteBehindQueue<>("characters", capacity, batchSize, window, maxAttempts, Character::getId, this::flush, meterRegistry);
+    }
+
+    public Character write(Character character) throws ErrorStoringCharacterException {
+        try {
+            if (!queue.offer(character, offerTimeout)) throw new TooManyPendingWritesException(queue.pending());
+            return character;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErrorStoringCharacterException("Interrupted while waiting to queue a character write", e);
+        } catch (IllegalStateException e) {
+            throw new ErrorStoringCharacterException("Character writes are no longer being accepted", e);
+        }
+    }
+
+    //Hands back the characters MongoDB failed to write, for the queue to retry them
+    List<Character> flush(List<Character> characters) {
+        BulkOperations upserts = mongoTemplate.bulkOps(BulkMode.UNORDERED, CharacterModel.class);
+        characters.forEach(character -> upserts.upsert(CharacterQueries.byId(character.getId()), CharacterQueries.replacing(character)));
+
+        try {
+            upserts.execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            List<Character> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                Character character = characters.get(error.getIndex());
+                log.warn("Could not write character behind - Character Id: {}, Error: {}", character.getId(), error.getMessage());
+                failed.add(character);
+            }
+            return failed;
+        } finally {
+            //What the characters held before isn't known, so every search is retired along with them
+            characters.forEach(character -> cache.evict(character.getId()));
+            searchCache.invalidateAll();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        int lost = queue.close(shutdownTimeout);
+        if (lost > 0) log.error("Character writes still pending at shutdown were lost - Pending: {}", lost);
+    }
+}
@@ -0,0 +1,10 @@
+package com.rods.magicreator.repositories.character.mongodb;
+
+import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveCharacterRepository extends ReactiveMongoRepository<CharacterModel, ObjectId> {
+}
@@ -14,7 +14,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 /*
     I'm not much a fan of mixing db models and domain models, so even though I know I could have done this with Spring
     and that the models are veeery similar, I think in early stage of projects is where you can benefit the most from
@@ -32,4 +32,7 @@ public class CharacterModel {
     private String house;
     private String houseName;
     private String patronus;
+
+    //Incremented on every write by the adapters, never by Spring Data, so that saving a model doesn't check it
+    private Long version;
 }
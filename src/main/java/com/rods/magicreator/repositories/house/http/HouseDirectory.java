@@ -0,0 +1,249 @@
+package com.rods.magicreator.repositories.house.http;
+
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.models.HousesRenamed;
+import com.rods.magicreator.repositories.house.http.models.HouseModel;
+import com.rods.magicreator.repositories.house.http.models.HouseModelRoot;
+import com.rods.magicreator.support.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of every house known by PotterAPI. Readers always get the last snapshot fetched, which is replaced
+ * as a whole when a refresh completes, so the network is only waited on before the very first fetch succeeds.
+ * Snapshots older than the refresh interval keep being served while a new one is fetched in the background.
+ * Unknown ids are remembered for a while, so that looking them up again doesn't trigger new refreshes until a
+ * refresh brings them in. Refreshes that bring houses in under new names publish {@link HousesRenamed}.
+ * <p>
+ * Every snapshot fetched is also persisted, and the last one is loaded when the application starts, so lookups are
+ * answered without waiting on PotterAPI even right after a restart, or while it is down.
+ * <p>
+ * Non-blocking callers wait for the very first fetch through {@link #loaded()} instead, holding no thread meanwhile.
+ */
+@Component
+@Slf4j
+public class HouseDirectory {
+
+    private final PotterApiClient api;
+    private final Duration refreshInterval;
+    private final Executor refresher;
+
+    private final SingleFlight<Snapshot> fetches;
+    private final Cache unknownHouses;
+    private final ApplicationEventPublisher events;
+    private final HouseSnapshotFile persisted;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicReference<Mono<Snapshot>> pendingLoad = new AtomicReference<>();
+
+    public HouseDirectory(PotterApiClient api, Duration refreshInterval, Executor refresher, MeterRegistry meterRegistry, Cache unknownHouses,
+                          ApplicationEventPublisher events, HouseSnapshotFile persisted) {
+        this.api = api;
+        this.refreshInterval = refreshInterval;
+        this.refresher = refresher;
+        this.fetches = new SingleFlight<>("potterapi.houses", meterRegistry);
+        this.unknownHouses = unknownHouses;
+        this.events = events;
+        this.persisted = persisted;
+
+        //Persisted houses are served right away, until the refresh once the application is ready replaces them
+        persisted.load().ifPresent(houses -> {
+            snapshot.set(new Snapshot(houses.getHouses(), houses.getFetchedAt()));
+            log.info("Houses loaded from the last fetch persisted - {} houses known, fetched at {}", houses.getHouses().size(), houses.getFetchedAt());
+        });
+
+        TimeGauge.builder("potterapi.houses.snapshot.age", this, TimeUnit.SECONDS, HouseDirectory::snapshotAgeInSeconds)
+                .description("Time since the houses being served were fetched from PotterAPI")
+                .register(meterRegistry);
+    }
+
+    @Autowired(required = true)
+    public HouseDirectory(PotterApiClient api, @Value("${potterapi.houses.refresh-interval}") Duration refreshInterval,
+                          MeterRegistry meterRegistry, CacheManager cacheManager, ApplicationEventPublisher events, HouseSnapshotFile persisted) {
+        this(api, refreshInterval, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "house-directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }), meterRegistry, cacheManager.getCache("unknownHouses"), events, persisted);
+    }
+
+    public Optional<House> get(String id) {
+        if (id == null) return Optional.empty();
+
+        House house = current().housesById.get(id);
+
+        //An unknown id may be a house created after our last fetch, but it is only worth checking once
+        if (house == null && unknownHouses.putIfAbsent(id, Boolean.TRUE) == null) refreshInBackground();
+
+        return Optional.ofNullable(house);
+    }
+
+    public List<House> all() {
+        return current().houses;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshInBackground();
+    }
+
+    @Scheduled(fixedRateString = "${potterapi.houses.refresh-interval}", initialDelayString = "${potterapi.houses.refresh-interval}")
+    public void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) return;
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.error("Error refreshing houses - Serving snapshot fetched at {}", fetchedAt().orElse(null), e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether houses have been fetched at least once, meaning lookups are answered without waiting on the network
+     */
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Completes once houses have been fetched at least once, right away when they already were. Until then PotterAPI
+     * is called without blocking, once for every caller waiting meanwhile, and lookups made after completing are
+     * answered from memory.
+     */
+    public Mono<Void> loaded() {
+        if (isLoaded()) return Mono.empty();
+
+        return pendingLoad.updateAndGet(pending -> pending != null ? pending : api.fetchHouses()
+                //Persisting the houses fetched writes a file, which is kept off the thread PotterAPI answers on
+                .publishOn(Schedulers.boundedElastic())
+                .map(this::install)
+                .doFinally(signal -> pendingLoad.set(null))
+                .cache()).then();
+    }
+
+    public Optional<Instant> fetchedAt() {
+        return Optional.ofNullable(snapshot.get()).map(s -> s.fetchedAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher instanceof ExecutorService) ((ExecutorService) refresher).shutdownNow();
+    }
+
+    private double snapshotAgeInSeconds() {
+        return fetchedAt().map(fetched -> (double) Duration.between(fetched, Instant.now()).toSeconds()).orElse(Double.NaN);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) return firstLoad();
+
+        if (!Instant.now().isBefore(current.fetchedAt.plus(refreshInterval))) refreshInBackground();
+        return current;
+    }
+
+    private Snapshot firstLoad() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    //Readers waiting for the first load and background refreshes all share a single call to PotterAPI
+    private Snapshot refresh() {
+        return fetches.execute(this::fetch);
+    }
+
+    private Snapshot fetch() {
+        return install(api.getHouses());
+    }
+
+    private Snapshot install(HouseModelRoot fetched) {
+        List<House> houses = fetched.getHouses().stream()
+                .map(this::toHouse)
+                .collect(Collectors.toList());
+
+        Snapshot fresh = new Snapshot(houses, Instant.now());
+        Snapshot previous = snapshot.getAndSet(fresh);
+
+        fresh.housesById.keySet().stream()
+                .filter(id -> previous == null || !previous.housesById.containsKey(id))
+                .forEach(unknownHouses::evict);
+
+        log.info("Houses refreshed - {} houses known", houses.size());
+        persisted.save(fresh.houses, fresh.fetchedAt);
+
+        List<House> renamed = renamedSince(previous, fresh);
+        if (!renamed.isEmpty()) {
+            log.info("Houses renamed since the last refresh - {}", renamed.stream().map(House::getId).collect(Collectors.toList()));
+            events.publishEvent(new HousesRenamed(renamed));
+        }
+        return fresh;
+    }
+
+    private static List<House> renamedSince(Snapshot previous, Snapshot fresh) {
+        if (previous == null) return Collections.emptyList();
+
+        return fresh.houses.stream()
+                .filter(house -> {
+                    House before = previous.housesById.get(house.getId());
+                    return before != null && !Objects.equals(before.getName(), house.getName());
+                })
+                .collect(Collectors.toList());
+    }
+
+    private House toHouse(HouseModel houseModel) {
+        return House.builder()
+                .id(houseModel.getId())
+                .name(houseModel.getName())
+                .school(houseModel.getSchool())
+                .build();
+    }
+
+    private static class Snapshot {
+        private final List<House> houses;
+        private final Map<String, House> housesById;
+        private final Instant fetchedAt;
+
+        private Snapshot(List<House> houses, Instant fetchedAt) {
+            this.houses = List.copyOf(houses);
+            this.housesById = houses.stream().collect(Collectors.collectingAndThen(
+                    Collectors.toMap(House::getId, Function.identity(), (first, second) -> first),
+                    Collections::unmodifiableMap));
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
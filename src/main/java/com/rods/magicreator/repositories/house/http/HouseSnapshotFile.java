@@ -0,0 +1,106 @@
+package com.rods.magicreator.repositories.house.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rods.magicreator.domain.models.House;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The last houses fetched from PotterAPI, kept in a local file so that they can be served as soon as the application
+ * starts, and for as long as PotterAPI can't be reached. Files are replaced as a whole, so a crash while writing one
+ * leaves the previous one in place. Files that can't be read are ignored, as if there was none.
+ */
+@Component
+@Slf4j
+public class HouseSnapshotFile {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path path;
+
+    public HouseSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    @Autowired(required = true)
+    public HouseSnapshotFile(@Value("${potterapi.houses.snapshot-file}") String path) {
+        this(Path.of(path));
+    }
+
+    public Optional<Persisted> load() {
+        if (!Files.exists(path)) return Optional.empty();
+
+        try {
+            JsonNode root = MAPPER.readTree(path.toFile());
+            List<House> houses = new ArrayList<>();
+            root.path("houses").forEach(house -> houses.add(House.builder()
+                    .id(text(house, "id"))
+                    .name(text(house, "name"))
+                    .school(text(house, "school"))
+                    .build()));
+            return Optional.of(new Persisted(houses, Instant.parse(root.path("fetchedAt").asText())));
+        } catch (Exception e) {
+            log.warn("Could not read persisted houses, ignoring them - File: {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    //An empty list is never worth falling back to, so it never replaces the last one persisted
+    public void save(List<House> houses, Instant fetchedAt) {
+        if (houses.isEmpty()) return;
+
+        Path temporary = null;
+        try {
+            ObjectNode root = MAPPER.createObjectNode().put("fetchedAt", fetchedAt.toString());
+            ArrayNode persisted = root.putArray("houses");
+            houses.forEach(house -> persisted.addObject()
+                    .put("id", house.getId())
+                    .put("name", house.getName())
+                    .put("school", house.getSchool()));
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            MAPPER.writeValue(temporary.toFile(), root);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Could not persist houses - File: {}", path, e);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            if (file != null) Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.debug("Could not delete temporary houses file - File: {}", file, e);
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Persisted {
+        private final List<House> houses;
+        private final Instant fetchedAt;
+    }
+}
@@ -29,6 +29,13 @@ public class PotterApiClient {
     }
 
     public HouseModelRoot getHouses() throws PotterApiCallException {
+        return fetchHouses().block();
+    }
+
+    /**
+     * The houses, fetched without blocking the subscriber's thread while PotterAPI answers
+     */
+    public Mono<HouseModelRoot> fetchHouses() {
         return webClient
                 .get()
                 .uri("potterApi/houses")
@@ -40,8 +47,7 @@ public class PotterApiClient {
                         .filter(throwable -> throwable instanceof PotterApiCallException)
                         .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
                             throw new PotterApiCallException("External Service failed to process after max retries", HttpStatus.SERVICE_UNAVAILABLE.value());
-                        }))
-                .block();
+                        }));
     }
 
     //Exists mainly to wrap specific status error to be filtered in potter api retry policy
@@ -0,0 +1,55 @@
+package com.rods.magicreator.repositories.house.http;
+
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.ports.out.IObtainHousesInfo.ErrorObtainingHousesException;
+import com.rods.magicreator.domain.ports.out.IReactivelyObtainHousesInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link PotterApiHttpAdapter}. Once the {@link HouseDirectory} is loaded every lookup
+ * is answered from memory, and lookups made before that wait for PotterAPI without holding any thread. Refreshes
+ * run on the directory's own thread, so they never hold the event loop either.
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class PotterApiReactiveAdapter implements IReactivelyObtainHousesInfo {
+
+    private final HouseDirectory directory;
+
+    public PotterApiReactiveAdapter(HouseDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Flux<House> getHouses() {
+        return fromDirectory(directory::all)
+                .flatMapIterable(houses -> houses)
+                .doOnError(e -> log.error("Error obtaining houses", e))
+                .onErrorMap(ErrorObtainingHousesException::new);
+    }
+
+    @Override
+    public Mono<House> getHouseById(String id) {
+        return fromDirectory(() -> directory.get(id))
+                .flatMap(Mono::justOrEmpty)
+                .doOnError(e -> log.error("Error obtaining house - House id: {}", id, e))
+                .onErrorMap(ErrorObtainingHousesException::new);
+    }
+
+    private <T> Mono<T> fromDirectory(DirectoryRead<T> read) {
+        return Mono.defer(directory::loaded).then(Mono.fromCallable(read::read));
+    }
+
+    @FunctionalInterface
+    private interface DirectoryRead<T> {
+        T read();
+    }
+}
@@ -0,0 +1,70 @@
+package com.rods.magicreator.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link CacheActivity} and {@link CacheTiers} of every cache built by {@link EhCacheConfiguration}, also published
+ * as meters tagged with the cache name, next to the cache.gets/puts/evictions ones Spring Boot binds from JCache
+ * statistics.
+ */
+public class CacheActivities {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CacheActivity> activities = new ConcurrentHashMap<>();
+    private final Map<String, CacheTiers> tiers = new ConcurrentHashMap<>();
+
+    public CacheActivities(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CacheActivity track(String cache) {
+        CacheActivity activity = new CacheActivity();
+        activities.put(cache, activity);
+
+        FunctionCounter.builder("cache.expirations", activity, CacheActivity::getExpirations)
+                .tag("cache", cache)
+                .description("The number of entries removed from the cache because they expired")
+                .register(meterRegistry);
+
+        return activity;
+    }
+
+    //Only tiers counting bytes get a size gauge, as a heap sized by entries would always report nothing
+    public CacheTiers watchTiers(String cache, org.ehcache.Cache<?, ?> ehcache) {
+        CacheTiers cacheTiers = new CacheTiers(ehcache);
+        tiers.put(cache, cacheTiers);
+
+        Gauge.builder("cache.entries", cacheTiers, CacheTiers::entries)
+                .tag("cache", cache)
+                .description("The number of entries held by the cache, across all its tiers")
+                .register(meterRegistry);
+
+        for (String tier : cacheTiers.names()) {
+            if (cacheTiers.occupiedBytes(tier).isEmpty()) continue;
+
+            Gauge.builder("cache.tier.size", cacheTiers, watched -> watched.occupiedBytes(tier).orElse(0L))
+                    .tag("cache", cache)
+                    .tag("tier", tier)
+                    .description("Bytes taken by the entries held in the tier of the cache")
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(meterRegistry);
+        }
+
+        return cacheTiers;
+    }
+
+    public Optional<CacheActivity> of(String cache) {
+        return Optional.ofNullable(activities.get(cache));
+    }
+
+    public Optional<CacheTiers> tiersOf(String cache) {
+        return Optional.ofNullable(tiers.get(cache));
+    }
+}
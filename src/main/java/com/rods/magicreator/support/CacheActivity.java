@@ -0,0 +1,38 @@
+package com.rods.magicreator.support;
+
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows what happens inside a cache through its events, covering what JCache statistics don't: evictions and
+ * expirations. Events are delivered asynchronously, so these numbers may lag a little behind the cache. How many
+ * entries and bytes each tier holds is read from Ehcache itself, by {@link CacheTiers}, as clearing a cache fires no
+ * events.
+ */
+public class CacheActivity implements CacheEventListener<Object, Object> {
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Override
+    public void onEvent(CacheEvent<?, ?> event) {
+        switch (event.getType()) {
+            case EVICTED:
+                evictions.increment();
+                break;
+            case EXPIRED:
+                expirations.increment();
+                break;
+        }
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package com.rods.magicreator.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Point in time view of how a cache is doing, as returned by {@link CachesStatisticsEndpoint}
+ */
+@AllArgsConstructor
+@Getter
+@Builder(toBuilder = true)
+public class CacheStatistics {
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long puts;
+    private long removals;
+    private long evictions;
+    private long expirations;
+    private long entries;
+    //Empty for tiers the cache doesn't have, and for heaps sized by entries
+    private Long heapBytes;
+    private Long offHeapBytes;
+    private Long diskBytes;
+    private double averageGetMicros;
+    private double averagePutMicros;
+    private double averageRemoveMicros;
+    private String heap;
+    private String offHeap;
+    private String disk;
+    private String timeToLive;
+}
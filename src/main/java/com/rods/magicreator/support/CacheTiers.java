@@ -0,0 +1,60 @@
+package com.rods.magicreator.support;
+
+import org.ehcache.Cache;
+import org.ehcache.core.internal.statistics.DefaultTierStatistics;
+import org.ehcache.core.internal.statistics.StatsUtils;
+import org.ehcache.core.statistics.TierStatistics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Entries and bytes held by each tier of a cache, read from the statistics Ehcache keeps for its stores, so nothing is
+ * weighed or serialized to know them and clearing the cache is accounted for. Heaps sized by entries don't keep track
+ * of bytes, so they have no size.
+ */
+public class CacheTiers {
+
+    public static final String HEAP = "OnHeap";
+    public static final String OFF_HEAP = "OffHeap";
+    public static final String DISK = "Disk";
+
+    private static final List<String> TOP_DOWN = List.of(HEAP, OFF_HEAP, DISK);
+
+    private final Map<String, TierStatistics> tiers = new LinkedHashMap<>();
+
+    public CacheTiers(Cache<?, ?> cache) {
+        List<String> present = Arrays.asList(StatsUtils.findTiers(cache));
+        for (String tier : TOP_DOWN)
+            if (present.contains(tier)) tiers.put(tier, new DefaultTierStatistics(cache, tier));
+    }
+
+    /**
+     * The tiers of the cache, from heap down to disk
+     */
+    public List<String> names() {
+        return List.copyOf(tiers.keySet());
+    }
+
+    /**
+     * Entries held by the cache, as counted by its lowest tier, which holds every entry the tiers above it hold
+     */
+    public long entries() {
+        List<TierStatistics> topDown = List.copyOf(tiers.values());
+        return topDown.isEmpty() ? 0 : topDown.get(topDown.size() - 1).getMappings();
+    }
+
+    /**
+     * Bytes taken by the entries held in the tier, empty when the cache has no such tier or it doesn't count bytes
+     */
+    public Optional<Long> occupiedBytes(String tier) {
+        TierStatistics statistics = tiers.get(tier);
+        if (statistics == null) return Optional.empty();
+
+        long occupied = statistics.getOccupiedByteSize();
+        return occupied < 0 ? Optional.empty() : Optional.of(occupied);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rods.magicreator.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Sizes and expiration of the caches built by {@link EhCacheConfiguration}
+ */
+@ConfigurationProperties(prefix = "caches")
+@Getter
+@Setter
+public class CachesProperties {
+
+    private String persistenceDirectory = System.getProperty("java.io.tmpdir") + "/magicreator-cache";
+    private Tiers characters = new Tiers();
+    private Tiers characterSearches = new Tiers();
+    private Tiers unknownHouses = new Tiers();
+
+    @Getter
+    @Setter
+    public static class Tiers {
+        private Duration timeToLive = Duration.ofMinutes(60);
+        //Heap is sized in bytes when set, otherwise in entries
+        private DataSize heap;
+        private long heapEntries = 100;
+        private DataSize offHeap = DataSize.ofBytes(0);
+        private DataSize disk = DataSize.ofBytes(0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rods.magicreator.support;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * /actuator/cachestatistics, how well each cache is doing. Hits, misses, puts, removals and timings come from the
+ * JCache statistics of the cache, so they account for every @Cacheable, @CachePut and @CacheEvict using it.
+ * Evictions and expirations come from its {@link CacheActivity}, and the entries and bytes held in each tier from
+ * its {@link CacheTiers}.
+ */
+@Component
+@Endpoint(id = "cachestatistics")
+public class CachesStatisticsEndpoint {
+
+    private final CacheManager cacheManager;
+    private final CacheActivities activities;
+    private final CachesProperties properties;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CachesStatisticsEndpoint(CacheManager cacheManager, CacheActivities activities, CachesProperties properties) {
+        this.cacheManager = cacheManager;
+        this.activities = activities;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, CacheStatistics> caches() {
+        Map<String, CacheStatistics> statistics = new TreeMap<>();
+        for (String cache : cacheManager.getCacheNames())
+            statistics.put(cache, cache(cache));
+        return statistics;
+    }
+
+    @ReadOperation
+    public CacheStatistics cache(@Selector String cache) {
+        //Unknown caches are answered with a 404
+        if (StreamSupport.stream(cacheManager.getCacheNames().spliterator(), false).noneMatch(cache::equals))
+            return null;
+
+        CacheStatistics.CacheStatisticsBuilder statistics = CacheStatistics.builder();
+
+        jCacheStatistics(cache).ifPresent(jcache -> statistics
+                .hits(jcache.getCacheHits())
+                .misses(jcache.getCacheMisses())
+                .hitRatio(jcache.getCacheGets() == 0 ? 0 : jcache.getCacheHitPercentage() / 100)
+                .puts(jcache.getCachePuts())
+                .removals(jcache.getCacheRemovals())
+                .averageGetMicros(jcache.getAverageGetTime())
+                .averagePutMicros(jcache.getAveragePutTime())
+                .averageRemoveMicros(jcache.getAverageRemoveTime()));
+
+        activities.of(cache).ifPresent(activity -> statistics
+                .evictions(activity.getEvictions())
+                .expirations(activity.getExpirations()));
+
+        activities.tiersOf(cache).ifPresent(tiers -> statistics
+                .entries(tiers.entries())
+                .heapBytes(tiers.occupiedBytes(CacheTiers.HEAP).orElse(null))
+                .offHeapBytes(tiers.occupiedBytes(CacheTiers.OFF_HEAP).orElse(null))
+                .diskBytes(tiers.occupiedBytes(CacheTiers.DISK).orElse(null)));
+
+        tiers(cache).ifPresent(tiers -> statistics
+                .heap(tiers.getHeap() != null ? tiers.getHeap().toString() : tiers.getHeapEntries() + " entries")
+                .offHeap(tiers.getOffHeap().toString())
+                .disk(tiers.getDisk().toString())
+                .timeToLive(tiers.getTimeToLive().toString()));
+
+        return statistics.build();
+    }
+
+    private Optional<CachesProperties.Tiers> tiers(String cache) {
+        switch (cache) {
+            case "characters":
+                return Optional.of(properties.getCharacters());
+            case "characterSearches":
+                return Optional.of(properties.getCharacterSearches());
+            case "unknownHouses":
+                return Optional.of(properties.getUnknownHouses());
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private Optional<CacheStatisticsMXBean> jCacheStatistics(String cache) {
+        try {
+            return mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cache + ",*"), null)
+                    .stream()
+                    .findFirst()
+                    .map(name -> JMX.newMXBeanProxy(mBeanServer, name, CacheStatisticsMXBean.class));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid cache name provided as argument - Cache: " + cache, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.rods.magicreator.support;
+
+import com.rods.magicreator.domain.models.Character;
+import org.ehcache.spi.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of {@link Character}, used when cached characters leave the heap. Every field is written as its
+ * UTF-8 length followed by its bytes, with a negative length standing for null.
+ */
+public class CharacterSerializer implements Serializer<Character> {
+
+    public CharacterSerializer() {
+    }
+
+    //Required by Ehcache when the serializer is registered by class
+    public CharacterSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    public ByteBuffer serialize(Character character) {
+        byte[][] fields = {
+                bytes(character.getId()),
+                bytes(character.getName()),
+                bytes(character.getRole()),
+                bytes(character.getSchool()),
+                bytes(character.getHouse()),
+                bytes(character.getHouseName()),
+                bytes(character.getPatronus()),
+                bytes(character.getVersion() == null ? null : character.getVersion().toString())
+        };
+
+        int size = 0;
+        for (byte[] field : fields)
+            size += Integer.BYTES + (field == null ? 0 : field.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length);
+                buffer.put(field);
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public Character read(ByteBuffer binary) {
+        return Character.builder()
+                .id(string(binary))
+                .name(string(binary))
+                .role(string(binary))
+                .school(string(binary))
+                .house(string(binary))
+                .houseName(string(binary))
+                .patronus(string(binary))
+                .version(version(string(binary)))
+                .build();
+    }
+
+    @Override
+    public boolean equals(Character character, ByteBuffer binary) {
+        return serialize(character).equals(binary);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Long version(String value) {
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    private static String string(ByteBuffer binary) {
+        int length = binary.getInt();
+        if (length < 0) return null;
+
+        byte[] value = new byte[length];
+        binary.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
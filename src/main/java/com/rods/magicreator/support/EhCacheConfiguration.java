@@ -0,0 +1,113 @@
+package com.rods.magicreator.support;
+
+import com.rods.magicreator.domain.models.Character;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.event.EventType;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.File;
+import java.util.List;
+
+/*
+    I was going to use the basic ConcurrentMap cache implementation, but I felt a little
+    difficult getting it to work with a expiry time, while Ehcache was a little more straightforward,
+    so that's why I used it.
+
+    The cache manager is built here instead of customized, as disk tiers need a persistence directory
+    to be given when it is created.
+*/
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CachesProperties.class)
+public class EhCacheConfiguration {
+
+    @Bean
+    public CacheActivities cacheActivities(MeterRegistry meterRegistry) {
+        return new CacheActivities(meterRegistry);
+    }
+
+    //Created at startup even when beans are initialized lazily, so that a persistence directory that can't be used fails it
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    public CacheManager jCacheManager(CachesProperties properties, CacheActivities activities) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        DefaultConfiguration configuration = new DefaultConfiguration(provider.getDefaultClassLoader(),
+                new DefaultPersistenceConfiguration(new File(properties.getPersistenceDirectory())));
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration);
+
+        CachesProperties.Tiers characters = properties.getCharacters();
+        CacheActivity charactersActivity = activities.track("characters");
+        watchTiers(activities, "characters", cacheManager.createCache("characters", Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, Character.class, resourcePools(characters))
+                        .withValueSerializer(new CharacterSerializer())
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(characters.getTimeToLive()))
+                        .withService(listening(charactersActivity))
+                        .build())));
+
+        //Results of dynamic filter searches, retired by CharacterSearchCache as characters are written
+        CachesProperties.Tiers characterSearches = properties.getCharacterSearches();
+        CacheActivity characterSearchesActivity = activities.track("characterSearches");
+        watchTiers(activities, "characterSearches", cacheManager.createCache("characterSearches", Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, List.class, resourcePools(characterSearches))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(characterSearches.getTimeToLive()))
+                        .withService(listening(characterSearchesActivity))
+                        .build())));
+
+        //Ids looked up that PotterAPI didn't know about, kept only for a short while as a house may be created meanwhile
+        CachesProperties.Tiers unknownHouses = properties.getUnknownHouses();
+        CacheActivity unknownHousesActivity = activities.track("unknownHouses");
+        watchTiers(activities, "unknownHouses", cacheManager.createCache("unknownHouses", Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, Boolean.class, resourcePools(unknownHouses))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(unknownHouses.getTimeToLive()))
+                        .withService(listening(unknownHousesActivity))
+                        .build())));
+
+        //Hits, misses, puts and removals, read by the metrics Spring Boot binds to JCache caches
+        for (String cache : cacheManager.getCacheNames())
+            cacheManager.enableStatistics(cache, true);
+
+        return cacheManager;
+    }
+
+    //Each tier must be bigger than the one above it, off-heap and disk are left out when sized zero
+    static ResourcePools resourcePools(CachesProperties.Tiers tiers) {
+        ResourcePoolsBuilder pools = tiers.getHeap() != null
+                ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(tiers.getHeap().toBytes(), MemoryUnit.B)
+                : ResourcePoolsBuilder.heap(tiers.getHeapEntries());
+
+        if (tiers.getOffHeap().toBytes() > 0)
+            pools = pools.offheap(tiers.getOffHeap().toBytes(), MemoryUnit.B);
+        if (tiers.getDisk().toBytes() > 0)
+            pools = pools.disk(tiers.getDisk().toBytes(), MemoryUnit.B, false);
+
+        return pools.build();
+    }
+
+    private static CacheEventListenerConfigurationBuilder listening(CacheActivity activity) {
+        return CacheEventListenerConfigurationBuilder
+                .newEventListenerConfiguration(activity, EventType.EVICTED, EventType.EXPIRED)
+                .unordered()
+                .asynchronous();
+    }
+
+    private static void watchTiers(CacheActivities activities, String name, Cache<?, ?> cache) {
+        activities.watchTiers(name, cache.unwrap(org.ehcache.Cache.class));
+    }
+}
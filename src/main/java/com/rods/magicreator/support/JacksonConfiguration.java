@@ -0,0 +1,59 @@
+package com.rods.magicreator.support;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Lets responses leave out the {@link Character} fields that weren't asked for. Characters are written whole unless
+ * the response is wrapped by {@link #projected(Object, CharacterProjection)}.
+ * <p>
+ * Also speaks CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) to clients that ask for
+ * them through Accept or send them as Content-Type. Their mappers are built by the same builder as the JSON one, so
+ * projections and every spring.jackson property apply to all three formats.
+ */
+@Configuration
+public class JacksonConfiguration {
+
+    public static final String CHARACTER_FIELDS_FILTER = "characterFields";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer characterFieldsCustomizer() {
+        return builder -> builder
+                .mixIn(Character.class, CharacterFieldsMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    public static MappingJacksonValue projected(Object body, CharacterProjection projection) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (!projection.isAll())
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(CHARACTER_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(projection.getFields())));
+        return value;
+    }
+
+    @JsonFilter(CHARACTER_FIELDS_FILTER)
+    abstract static class CharacterFieldsMixin {
+    }
+}
@@ -0,0 +1,141 @@
+package com.rods.magicreator.support;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times every command the MongoDB driver sends, by command and collection, into histograms of their latencies.
+ * Commands slower than the threshold are logged with the shape of their filter: its fields and operators, with every
+ * value left out, so that logs tell which query was slow without holding what it was searched for.
+ * <p>
+ * Shapes are taken when commands start, as the driver doesn't let command documents be read after that, so only
+ * commands that carry a filter have one taken.
+ */
+@Slf4j
+public class MongoCommandMetrics implements CommandListener {
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final Map<Integer, StartedCommand> started = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry, Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        started.put(event.getRequestId(), new StartedCommand(collectionOf(event.getCommandName(), command),
+                filterShapeOf(event.getCommandName(), command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "failure");
+    }
+
+    private void completed(int requestId, String commandName, long elapsedNanos, String status) {
+        StartedCommand command = started.remove(requestId);
+        String collection = command == null ? "unknown" : command.collection;
+
+        Timer.builder("mongodb.commands")
+                .description("Time taken by commands sent to MongoDB")
+                .tag("command", commandName)
+                .tag("collection", collection)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (elapsedNanos >= slowThresholdNanos)
+            log.warn("Slow MongoDB command - Command: {}, Collection: {}, Status: {}, Took: {} ms, Filter: {}", commandName, collection,
+                    status, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), command == null || command.filterShape == null ? "none" : command.filterShape);
+    }
+
+    //Commands name their collection as their own value, except for cursor continuations
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) return value.asString().getValue();
+
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : "none";
+    }
+
+    public static String filterShapeOf(String commandName, BsonDocument command) {
+        switch (commandName) {
+            case "find":
+                return shapeOf(command.get("filter"));
+            case "count":
+            case "distinct":
+            case "findAndModify":
+                return shapeOf(command.get("query"));
+            case "aggregate":
+                return shapeOf(command.get("pipeline"));
+            case "update":
+                return shapeOfStatements(command.get("updates"));
+            case "delete":
+                return shapeOfStatements(command.get("deletes"));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Fields and operators of a filter, with each value replaced by a question mark. Arrays only list each distinct
+     * shape of their elements once, so {@code $in} filters have the same shape whatever their length.
+     */
+    public static String shapeOf(BsonValue value) {
+        if (value == null) return "{}";
+        if (value.isDocument())
+            return value.asDocument().entrySet().stream()
+                    .map(entry -> entry.getKey() + ": " + shapeOf(entry.getValue()))
+                    .collect(Collectors.joining(", ", "{", "}"));
+        if (value.isArray())
+            return value.asArray().stream()
+                    .map(MongoCommandMetrics::shapeOf)
+                    .distinct()
+                    .collect(Collectors.joining(", ", "[", "]"));
+        return "?";
+    }
+
+    //Writes carry a statement for each document they change, each with its own filter
+    private static String shapeOfStatements(BsonValue statements) {
+        if (statements == null || !statements.isArray()) return null;
+
+        BsonArray filters = new BsonArray();
+        statements.asArray().forEach(statement -> {
+            if (statement.isDocument()) filters.add(statement.asDocument().get("q", new BsonDocument()));
+        });
+        return shapeOf(filters);
+    }
+
+    private static class StartedCommand {
+        private final String collection;
+        private final String filterShape;
+
+        private StartedCommand(String collection, String filterShape) {
+            this.collection = collection;
+            this.filterShape = filterShape;
+        }
+    }
+}
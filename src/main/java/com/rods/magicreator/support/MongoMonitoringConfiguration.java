@@ -0,0 +1,27 @@
+package com.rods.magicreator.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Listens to the commands of every MongoDB client Boot builds, blocking or reactive, as both apply these customizers
+ */
+@Configuration
+public class MongoMonitoringConfiguration {
+
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry meterRegistry,
+                                                   @Value("${mongodb.slow-command-threshold:PT0.1S}") Duration slowThreshold) {
+        return new MongoCommandMetrics(meterRegistry, slowThreshold);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics) {
+        return settings -> settings.addCommandListener(mongoCommandMetrics);
+    }
+}
@@ -0,0 +1,63 @@
+package com.rods.magicreator.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same call: while a call is in flight, every other caller waits for it and
+ * shares its result or error instead of starting a call of its own.
+ */
+public class SingleFlight<T> {
+
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+                .description("Calls actually executed")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.coalesced")
+                .description("Callers that shared a call already in flight instead of executing their own")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public T execute(Supplier<T> call) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> current = inFlight.compareAndExchange(null, mine);
+
+        if (current != null) {
+            coalesced.increment();
+            return join(current);
+        }
+
+        executed.increment();
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.compareAndSet(mine, null);
+        }
+    }
+
+    private T join(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rods.magicreator.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long the application took to become ready, from the start of the JVM, broken down into the time spent
+ * before Spring started and each top level startup step, along with the slowest beans to create. Time to ready is
+ * also kept as the startup.time-to-ready gauge.
+ * <p>
+ * Can also stop the application as soon as it is ready, which is what training runs recording the classes it loads
+ * for a class data sharing archive need.
+ */
+@Component
+@Slf4j
+public class StartupReport {
+
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final ConfigurableApplicationContext context;
+    private final MeterRegistry meterRegistry;
+    private final int slowestBeans;
+    private final boolean exitWhenReady;
+
+    public StartupReport(ConfigurableApplicationContext context, MeterRegistry meterRegistry,
+                         @Value("${startup.report.slowest-beans:10}") int slowestBeans,
+                         @Value("${startup.exit-when-ready:false}") boolean exitWhenReady) {
+        this.context = context;
+        this.meterRegistry = meterRegistry;
+        this.slowestBeans = slowestBeans;
+        this.exitWhenReady = exitWhenReady;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        Instant jvmStartedAt = Instant.ofEpochMilli(runtime.getStartTime());
+        Duration timeToReady = Duration.ofMillis(runtime.getUptime());
+
+        TimeGauge.builder("startup.time-to-ready", timeToReady, TimeUnit.MILLISECONDS, Duration::toMillis)
+                .description("Time from the start of the JVM until the application was ready")
+                .register(meterRegistry);
+
+        if (context.getApplicationStartup() instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) context.getApplicationStartup()).getBufferedTimeline();
+            log.info("Startup took {} ms until ready - Phases: {}, Slowest beans: {}", timeToReady.toMillis(),
+                    millis(phases(timeline, jvmStartedAt)), millis(slowestBeans(timeline, slowestBeans)));
+        } else {
+            log.info("Startup took {} ms until ready", timeToReady.toMillis());
+        }
+
+        if (exitWhenReady) {
+            log.info("Exiting as soon as ready was asked for");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Time spent before Spring started, mostly by the JVM loading classes, followed by each top level startup step
+     * in the order they ran. Steps run inside others, such as creating each bean, are part of their parent's time.
+     */
+    public static Map<String, Duration> phases(StartupTimeline timeline, Instant jvmStartedAt) {
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        phases.put("jvm", Duration.between(jvmStartedAt, timeline.getStartTime()));
+        timeline.getEvents().stream()
+                .filter(event -> event.getStartupStep().getParentId() == null)
+                .sorted(Comparator.comparing(TimelineEvent::getStartTime))
+                .forEach(event -> phases.merge(event.getStartupStep().getName(), event.getDuration(), Duration::plus));
+        return phases;
+    }
+
+    /**
+     * Beans that took the longest to create, including the time taken to create the beans they depend on
+     */
+    public static Map<String, Duration> slowestBeans(StartupTimeline timeline, int limit) {
+        return timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+                .limit(limit)
+                .collect(Collectors.toMap(StartupReport::beanNameOf, TimelineEvent::getDuration, Duration::plus, LinkedHashMap::new));
+    }
+
+    private static String beanNameOf(TimelineEvent event) {
+        for (StartupStep.Tag tag : event.getStartupStep().getTags())
+            if (tag.getKey().equals("beanName")) return tag.getValue();
+        return "unknown";
+    }
+
+    private static Map<String, Long> millis(Map<String, Duration> durations) {
+        return durations.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().toMillis(), Long::sum, LinkedHashMap::new));
+    }
+}
@@ -0,0 +1,22 @@
+package com.rods.magicreator.support;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to JDK 21 virtual threads while the code base still targets Java 11. Fails fast when the running JVM
+ * doesn't support them, instead of silently falling back to platform threads.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require running on JDK 21 or newer - Running on: " + Runtime.version(), e);
+        }
+    }
+}
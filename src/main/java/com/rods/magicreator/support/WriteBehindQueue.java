@@ -0,0 +1,265 @@
+package com.rods.magicreator.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Holds writes in memory and hands them to a writer in batches, from a single thread, once a batch fills up or the
+ * oldest pending write has waited for a whole window. A write to a key that still has one pending takes its place,
+ * so successive writes to the same key are made only once, with the last value.
+ * <p>
+ * Never holds more than its capacity, counting the batch being written until it is: offers beyond it wait for a
+ * flush to make room, up to the timeout they give. Writes the writer fails, whether it throws or hands them back, are
+ * put back, unless a newer write to the same key is pending, and retried a window later. Writes failing as many times
+ * as the attempts allowed are given up on and logged, so that a write that can never be made doesn't hold back the
+ * ones queued after it.
+ */
+@Slf4j
+public class WriteBehindQueue<T> {
+
+    private final String name;
+    private final int capacity;
+    private final int batchSize;
+    private final long windowNanos;
+    private final int maxAttempts;
+    private final Function<T, String> keyOf;
+    private final BatchWriter<T> writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDue = lock.newCondition();
+    private final LinkedHashMap<String, T> pending = new LinkedHashMap<>();
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private int writing;
+    private long oldestPendingSince;
+    private boolean closed;
+
+    private final Counter written;
+    private final Counter collapsed;
+    private final Counter rejected;
+    private final Counter failedFlushes;
+    private final Counter dropped;
+    private final Thread flusher;
+
+    public WriteBehindQueue(String name, int capacity, int batchSize, Duration window, int maxAttempts,
+                            Function<T, String> keyOf, BatchWriter<T> writer, MeterRegistry meterRegistry) {
+        if (capacity < batchSize) throw new IllegalArgumentException("Capacity must hold at least one batch - Queue: " + name);
+        if (maxAttempts < 1) throw new IllegalArgumentException("Writes must be attempted at least once - Queue: " + name);
+
+        this.name = name;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.windowNanos = window.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.keyOf = keyOf;
+        this.writer = writer;
+
+        Gauge.builder("writebehind.pending", this, WriteBehindQueue::pending)
+                .description("Writes waiting to be flushed")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.written = Counter.builder("writebehind.written")
+                .description("Writes the writer made")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.collapsed = Counter.builder("writebehind.collapsed")
+                .description("Writes replaced by a later write to the same key before being flushed")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("writebehind.rejected")
+                .description("Writes refused because the queue stayed full for as long as they could wait")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("writebehind.flush.failures")
+                .description("Batches the writer failed, wholly or in part, whether their writes were retried or given up on")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("writebehind.dropped")
+                .description("Writes given up on after failing as many times as the attempts allowed")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::flushUntilClosed, "write-behind-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the value, waiting up to the timeout for room when the queue is full.
+     *
+     * @return false if there was still no room when the timeout elapsed
+     * @throws IllegalStateException if the queue was closed
+     */
+    public boolean offer(T value, Duration timeout) throws InterruptedException {
+        String key = keyOf.apply(value);
+        long nanos = timeout.toNanos();
+
+        lock.lockInterruptibly();
+        try {
+            //Replacing a pending write takes no room, so it never waits
+            while (!closed && !pending.containsKey(key) && pending.size() + writing >= capacity) {
+                if (nanos <= 0) {
+                    rejected.increment();
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            if (closed) throw new IllegalStateException("No longer accepting writes - Queue: " + name);
+
+            if (pending.isEmpty()) oldestPendingSince = System.nanoTime();
+            if (pending.put(key, value) != null) collapsed.increment();
+            //A newer write gets attempts of its own
+            if (!failedAttempts.isEmpty()) failedAttempts.remove(key);
+            flushDue.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops taking writes and waits up to the timeout for the pending ones to be flushed.
+     *
+     * @return how many writes were still pending when the timeout elapsed
+     */
+    public int close(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            flushDue.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        flusher.join(Math.max(1, timeout.toMillis()));
+        if (flusher.isAlive()) flusher.interrupt();
+        return pending();
+    }
+
+    private void flushUntilClosed() {
+        try {
+            List<T> batch;
+            while ((batch = nextBatch()) != null) {
+                List<T> failed;
+                try {
+                    failed = writer.write(batch);
+                } catch (RuntimeException e) {
+                    log.error("Could not flush writes, retrying them - Queue: {}, Batch size: {}", name, batch.size(), e);
+                    failed = batch;
+                }
+                written.increment(batch.size() - failed.size());
+
+                List<String> givenUp = finish(batch, failed);
+                if (failed.isEmpty()) continue;
+
+                failedFlushes.increment();
+                if (!givenUp.isEmpty()) {
+                    dropped.increment(givenUp.size());
+                    log.error("Gave up on writes failing {} times - Queue: {}, Keys: {}", maxAttempts, name, givenUp);
+                }
+                Thread.sleep(Math.max(1, windowNanos / 1_000_000));
+            }
+        } catch (InterruptedException e) {
+            log.warn("Stopped flushing writes before all were flushed - Queue: {}, Pending: {}", name, pending());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Waits for a full batch, for the window of the oldest write to elapse or for the queue to close, whichever first
+    private List<T> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (closed) return null;
+                    flushDue.await();
+                    continue;
+                }
+
+                long untilDue = oldestPendingSince + windowNanos - System.nanoTime();
+                if (closed || pending.size() >= batchSize || untilDue <= 0) return takeBatch();
+                flushDue.awaitNanos(untilDue);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Writes are taken oldest first. Some are only left behind when more than a batch was pending, and those are due
+    //as soon as the flusher is back on purpose, so that a backlog drains without waiting a window per batch. The window
+    //of the oldest write taken is kept for them, which is what makes them due right away
+    private List<T> takeBatch() {
+        List<T> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<T> values = pending.values().iterator();
+        while (batch.size() < batchSize && values.hasNext()) {
+            batch.add(values.next());
+            values.remove();
+        }
+        writing = batch.size();
+        return batch;
+    }
+
+    //Puts the failed writes back and frees the room the batch took, returning the keys of the writes given up on.
+    //Failed writes a newer one has replaced meanwhile are simply left out. Those put back never exceed the room freed
+    private List<String> finish(List<T> batch, List<T> failed) {
+        List<String> givenUp = new ArrayList<>();
+        lock.lock();
+        try {
+            Set<String> failedKeys = new HashSet<>();
+            if (!failed.isEmpty() && pending.isEmpty()) oldestPendingSince = System.nanoTime();
+            for (T value : failed) {
+                String key = keyOf.apply(value);
+                failedKeys.add(key);
+                if (pending.containsKey(key)) continue;
+
+                if (failedAttempts.merge(key, 1, Integer::sum) < maxAttempts) {
+                    pending.put(key, value);
+                } else {
+                    failedAttempts.remove(key);
+                    givenUp.add(key);
+                }
+            }
+            if (!failedAttempts.isEmpty())
+                batch.stream().map(keyOf).filter(key -> !failedKeys.contains(key)).forEach(failedAttempts::remove);
+
+            writing = 0;
+            notFull.signalAll();
+            return givenUp;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch, handing back the writes of it that failed so that they are retried like a batch it throws for
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        List<T> write(List<T> batch);
+    }
+}
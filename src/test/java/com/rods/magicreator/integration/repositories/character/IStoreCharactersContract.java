@@ -0,0 +1,365 @@
+package com.rods.magicreator.integration.repositories.character;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterFilter.NameMatch;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorSearchingCharactersException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorStoringCharacterException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Behavior every {@link IStoreCharacters} must have, whatever it stores characters in. Implementations get it by
+ * extending this class and handing an empty store to each test.
+ */
+public abstract class IStoreCharactersContract {
+
+    protected abstract IStoreCharacters store();
+
+    protected abstract void clear() throws Exception;
+
+    @BeforeEach
+    void clearStore() throws Exception {
+        clear();
+    }
+
+    private Character character(String name, String role, String house, String patronus) {
+        return new Character(null, name, role, "Hogwarts", house, house + " name", patronus, null);
+    }
+
+    @Test
+    void Create_Should_AssignAnId_And_BeFoundByIt() throws Exception {
+        //Arrange
+        Character harry = character("Harry Potter", "Student", "4321Gryffindor", "Stag");
+
+        //Act
+        Character created = store().create(harry);
+
+        //Assert
+        assertThat(created.getId()).isNotNull();
+        assertThat(store().findBy(created.getId()).get()).usingRecursiveComparison().isEqualTo(created);
+        assertThat(created).usingRecursiveComparison().ignoringFields("id", "version").isEqualTo(harry);
+    }
+
+    @Test
+    void Create_Should_RejectNamesAlreadyTaken() throws Exception {
+        //Arrange
+        store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+
+        //Act
+        //Assert
+        assertThrows(ErrorStoringCharacterException.class, () -> store().create(character("Harry Potter", "Auror", "4321Gryffindor", "Stag")));
+        assertThat(store().findBy(CharacterFilter.builder().name("Harry Potter").build(), CharacterProjection.ALL)).hasSize(1);
+    }
+
+    @Test
+    void CreateAll_Should_CreateEveryValidCharacter_And_ReportDuplicatesPerItem() throws Exception {
+        //Arrange
+        store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+
+        //Act
+        List<CharacterCreationResult> results = store().createAll(List.of(
+                character("Hermione Granger", "Student", "4321Gryffindor", "Otter"),
+                character("Harry Potter", "Auror", "4321Gryffindor", "Stag"),
+                character("Rony Weasley", "Student", "4321Gryffindor", "Terrier")));
+
+        //Assert
+        assertThat(results).extracting("index").containsExactly(0, 1, 2);
+        assertThat(results).extracting("success").containsExactly(true, false, true);
+        assertThat(results.get(1).getError()).contains("duplicate key");
+        assertThat(store().findBy(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterProjection.ALL))
+                .extracting("name").containsExactlyInAnyOrder("Harry Potter", "Hermione Granger", "Rony Weasley");
+    }
+
+    @Test
+    void Update_Should_ReplaceTheCharacter_And_MoveItBetweenSearches() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "None"));
+
+        //Act
+        store().update(harry.withRole("Auror").withPatronus("Stag"));
+
+        //Assert
+        assertThat(store().findBy(harry.getId()).get().getRole()).isEqualTo("Auror");
+        assertThat(store().findBy(CharacterFilter.builder().role("Student").build(), CharacterProjection.ALL)).isEmpty();
+        assertThat(store().findBy(CharacterFilter.builder().role("Auror").patronus("Stag").build(), CharacterProjection.ALL)).extracting("name").containsExactly("Harry Potter");
+    }
+
+    @Test
+    void CreateAndUpdate_Should_StartVersionsAtOne_And_IncrementThemOnEveryWrite() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "None"));
+
+        //Act
+        Character auror = store().update(harry.withRole("Auror"));
+        Character withPatronus = store().update(auror.withPatronus("Stag"));
+
+        //Assert
+        assertThat(harry.getVersion()).isEqualTo(1L);
+        assertThat(auror.getVersion()).isEqualTo(2L);
+        assertThat(withPatronus.getVersion()).isEqualTo(3L);
+        assertThat(store().findBy(harry.getId()).get().getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void Patch_Should_ChangeOnlyTheGivenFields_And_MoveTheCharacterBetweenSearches() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "None"));
+
+        //Act
+        Character patched = store().patch(harry.getId(), CharacterPatch.builder().role("Auror").patronus("Stag").build()).get();
+
+        //Assert
+        assertThat(patched).usingRecursiveComparison()
+                .isEqualTo(harry.withRole("Auror").withPatronus("Stag").withVersion(2L));
+        assertThat(store().findBy(harry.getId()).get()).usingRecursiveComparison().isEqualTo(patched);
+        assertThat(store().findBy(CharacterFilter.builder().role("Student").build(), CharacterProjection.ALL)).isEmpty();
+        assertThat(store().findBy(CharacterFilter.builder().role("Auror").patronus("Stag").build(), CharacterProjection.ALL)).extracting("name").containsExactly("Harry Potter");
+    }
+
+    @Test
+    void Patch_Should_FindNothing_WhenNoCharacterHasTheId() throws Exception {
+        //Act
+        //Assert
+        assertThat(store().patch(new ObjectId().toString(), CharacterPatch.builder().role("Auror").build())).isEmpty();
+    }
+
+    @Test
+    void Patch_Should_RejectTakingTheNameOfAnotherCharacter() throws Exception {
+        //Arrange
+        store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        Character draco = store().create(character("Draco Malfoy", "Student", "1234Sonserina", "None"));
+
+        //Act
+        //Assert
+        assertThrows(ErrorStoringCharacterException.class, () -> store().patch(draco.getId(), CharacterPatch.builder().name("Harry Potter").build()));
+        assertThat(store().findBy(draco.getId()).get().getName()).isEqualTo("Draco Malfoy");
+    }
+
+    @Test
+    void UpdateAll_Should_PatchEveryMatchingCharacter_And_OnlyThem() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        store().create(character("Hermione Granger", "Student", "4321Gryffindor", "Otter"));
+        store().create(character("Draco Malfoy", "Student", "1234Sonserina", "None"));
+
+        //Act
+        long updated = store().updateAll(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterPatch.builder().role("Alumni").build());
+
+        //Assert
+        assertThat(updated).isEqualTo(2);
+        assertThat(store().findBy(CharacterFilter.builder().role("Alumni").build(), CharacterProjection.ALL)).extracting("name").containsExactlyInAnyOrder("Harry Potter", "Hermione Granger");
+        assertThat(store().findBy(CharacterFilter.builder().role("Student").build(), CharacterProjection.ALL)).extracting("name").containsExactly("Draco Malfoy");
+        assertThat(store().findBy(harry.getId()).get()).extracting("role", "version").containsExactly("Alumni", 2L);
+    }
+
+    @Test
+    void RenameHouse_Should_OnlyChangeCharactersHoldingAnotherName() throws Exception {
+        //Arrange
+        Character harry = store().create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null));
+        Character hermione = store().create(new Character(null, "Hermione Granger", "Student", "Hogwarts", "4321Gryffindor", "Grifinoria", "Otter", null));
+        Character draco = store().create(new Character(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", null));
+
+        //Act
+        long renamed = store().renameHouse("4321Gryffindor", "Grifinoria");
+
+        //Assert
+        assertThat(renamed).isEqualTo(1);
+        assertThat(store().findBy(harry.getId()).get()).extracting("houseName", "version").containsExactly("Grifinoria", 2L);
+        assertThat(store().findBy(hermione.getId()).get()).extracting("houseName", "version").containsExactly("Grifinoria", 1L);
+        assertThat(store().findBy(draco.getId()).get()).extracting("houseName", "version").containsExactly("Sonserina", 1L);
+    }
+
+    @Test
+    void DeleteAll_Should_RemoveEveryMatchingCharacter_And_OnlyThem() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        store().create(character("Draco Malfoy", "Student", "1234Sonserina", "None"));
+        store().create(character("Lucius Malfoy", "Death Eater", "1234Sonserina", "CantHaveOne"));
+
+        //Act
+        long deleted = store().deleteAll(CharacterFilter.builder().house("1234Sonserina").build());
+
+        //Assert
+        assertThat(deleted).isEqualTo(2);
+        assertThat(store().findBy(CharacterFilter.builder().name("Malfoy").build(), CharacterProjection.ALL)).isEmpty();
+        assertThat(store().findAll(null, 10, CharacterProjection.ALL).getContent()).extracting("id").containsExactly(harry.getId());
+    }
+
+    @Test
+    void Update_Should_RejectTakingTheNameOfAnotherCharacter() throws Exception {
+        //Arrange
+        store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        Character draco = store().create(character("Draco Malfoy", "Student", "1234Sonserina", "None"));
+
+        //Act
+        //Assert
+        assertThrows(ErrorStoringCharacterException.class, () -> store().update(draco.withName("Harry Potter")));
+        assertThat(store().findBy(draco.getId()).get().getName()).isEqualTo("Draco Malfoy");
+    }
+
+    @Test
+    void Delete_Should_RemoveTheCharacter_FromEverySearch() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+
+        //Act
+        store().delete(harry.getId());
+
+        //Assert
+        assertThat(store().findBy(harry.getId())).isEmpty();
+        assertThat(store().findBy(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterProjection.ALL)).isEmpty();
+        assertThat(store().findAll(null, 10, CharacterProjection.ALL).getContent()).isEmpty();
+    }
+
+    @Test
+    void FindAllByPage_Should_Read100CharactersPerPage() throws Exception {
+        //Arrange
+        store().createAll(IntStream.range(0, 150)
+                .mapToObj(i -> character("Character " + i, "Student", "4321Gryffindor", "Stag"))
+                .collect(Collectors.toList()));
+
+        //Act
+        Page<Character> first = store().findAll(0);
+        Page<Character> second = store().findAll(1);
+
+        //Assert
+        assertThat(first.getContent()).hasSize(100);
+        assertThat(second.getContent()).hasSize(50);
+        assertThat(first.getTotalElements()).isEqualTo(150);
+        assertThat(second.isLast()).isTrue();
+    }
+
+    @Test
+    void FindAllAfterCursor_Should_WalkThroughEveryCharacterInCreationOrder() throws Exception {
+        //Arrange
+        List<String> ids = new ArrayList<>();
+        for (String name : List.of("Harry Potter", "Hermione Granger", "Rony Weasley"))
+            ids.add(store().create(character(name, "Student", "4321Gryffindor", "Stag")).getId());
+
+        //Act
+        CharacterSlice first = store().findAll(null, 2, CharacterProjection.ALL);
+        CharacterSlice second = store().findAll(first.getNext(), 2, CharacterProjection.ALL);
+
+        //Assert
+        assertThat(first.getContent()).extracting("id").containsExactly(ids.get(0), ids.get(1));
+        assertThat(first.getSize()).isEqualTo(2);
+        assertThat(second.getContent()).extracting("id").containsExactly(ids.get(2));
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void FindAllAfterCursor_Should_RejectCursorsItDidNotIssue() {
+        //Act
+        //Assert
+        ErrorSearchingCharactersException exception = assertThrows(ErrorSearchingCharactersException.class, () -> store().findAll("not-a-cursor", 2, CharacterProjection.ALL));
+        assertThat(exception.contains(IllegalArgumentException.class)).isTrue();
+    }
+
+    @Test
+    void StreamAll_Should_DeliverEveryCharacterInBatches_And_StopWhenConsumerAsksTo() throws Exception {
+        //Arrange
+        for (int i = 0; i < 5; i++)
+            store().create(character("Character " + i, "Student", "4321Gryffindor", "Stag"));
+        List<Integer> allBatches = new ArrayList<>();
+        List<Integer> stoppedBatches = new ArrayList<>();
+
+        //Act
+        store().streamAll(2, batch -> allBatches.add(batch.size()));
+        store().streamAll(2, batch -> stoppedBatches.add(batch.size()) && stoppedBatches.size() < 2);
+
+        //Assert
+        assertThat(allBatches).containsExactly(2, 2, 1);
+        assertThat(stoppedBatches).containsExactly(2, 2);
+    }
+
+    @Test
+    void FindBy_Should_MatchEveryGivenField() throws Exception {
+        //Arrange
+        store().createAll(List.of(
+                character("Draco Malfoy", "Student", "1234Sonserina", "None"),
+                character("Lucius Malfoy", "Death Eater", "1234Sonserina", "CantHaveOne"),
+                character("Hermione Granger", "Student", "4321Gryffindor", "Otter"),
+                character("Minerva McGonagall", "Professor", "4321Gryffindor", "Cat")));
+
+        //Act
+        List<Character> students = store().findBy(CharacterFilter.builder().role("Student").build(), CharacterProjection.ALL);
+        List<Character> gryffindorStudents = store().findBy(CharacterFilter.builder().role("Student").house("4321Gryffindor").build(), CharacterProjection.ALL);
+        List<Character> malfoys = store().findBy(CharacterFilter.builder().name("Malfoy").build(), CharacterProjection.ALL);
+        List<Character> deathEaterMalfoys = store().findBy(CharacterFilter.builder().name("Malfoy").role("Death Eater").build(), CharacterProjection.ALL);
+        List<Character> noExactMatch = store().findBy(CharacterFilter.builder().role("Stu").house("4321Gryf").build(), CharacterProjection.ALL);
+
+        //Assert
+        assertThat(students).extracting("name").containsExactlyInAnyOrder("Draco Malfoy", "Hermione Granger");
+        assertThat(gryffindorStudents).extracting("name").containsExactly("Hermione Granger");
+        assertThat(malfoys).extracting("name").containsExactlyInAnyOrder("Draco Malfoy", "Lucius Malfoy");
+        assertThat(deathEaterMalfoys).extracting("name").containsExactly("Lucius Malfoy");
+        assertThat(noExactMatch).isEmpty();
+    }
+
+    @Test
+    void FindBy_Should_MatchNamesByPrefixOrExactlyIgnoringCase() throws Exception {
+        //Arrange
+        store().createAll(List.of(
+                character("Draco Malfoy", "Student", "1234Sonserina", "None"),
+                character("Lucius Malfoy", "Death Eater", "1234Sonserina", "CantHaveOne")));
+
+        //Act
+        List<Character> byPrefix = store().findBy(CharacterFilter.builder().name("Draco").nameMatch(NameMatch.PREFIX).build(), CharacterProjection.ALL);
+        List<Character> notAPrefix = store().findBy(CharacterFilter.builder().name("Malfoy").nameMatch(NameMatch.PREFIX).build(), CharacterProjection.ALL);
+        List<Character> ignoringCase = store().findBy(CharacterFilter.builder().name("lucius MALFOY").nameMatch(NameMatch.EXACT_IGNORE_CASE).build(), CharacterProjection.ALL);
+
+        //Assert
+        assertThat(byPrefix).extracting("name").containsExactly("Draco Malfoy");
+        assertThat(notAPrefix).isEmpty();
+        assertThat(ignoringCase).extracting("name").containsExactly("Lucius Malfoy");
+    }
+
+    @Test
+    void FindByWithProjection_Should_ReadOnlyTheProjectedFields_And_TheId() throws Exception {
+        //Arrange
+        Character harry = store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        CharacterProjection names = CharacterProjection.of(List.of("name", "house"));
+
+        //Act
+        List<Character> found = store().findBy(CharacterFilter.builder().role("Student").build(), names);
+        CharacterSlice slice = store().findAll(null, 10, names);
+
+        //Assert
+        assertThat(found).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(new Character(harry.getId(), "Harry Potter", null, null, "4321Gryffindor", null, null, null));
+        assertThat(slice.getContent()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(new Character(harry.getId(), "Harry Potter", null, null, "4321Gryffindor", null, null, null));
+    }
+
+    @Test
+    void FindByWithProjection_Should_NotChangeWhatOtherProjectionsRead() throws Exception {
+        //Arrange
+        store().create(character("Harry Potter", "Student", "4321Gryffindor", "Stag"));
+        CharacterFilter students = CharacterFilter.builder().role("Student").build();
+
+        //Act
+        List<Character> patronuses = store().findBy(students, CharacterProjection.of(List.of("patronus")));
+        List<Character> whole = store().findBy(students, CharacterProjection.ALL);
+
+        //Assert
+        assertThat(patronuses).extracting("patronus", "name").containsExactly(tuple("Stag", null));
+        assertThat(whole).extracting("patronus", "name").containsExactly(tuple("Stag", "Harry Potter"));
+    }
+}
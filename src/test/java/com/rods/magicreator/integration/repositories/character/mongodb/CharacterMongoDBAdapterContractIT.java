@@ -0,0 +1,49 @@
+package com.rods.magicreator.integration.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.ports.out.IStoreCharacters;
+import com.rods.magicreator.integration.repositories.character.IStoreCharactersContract;
+import com.rods.magicreator.repositories.character.mongodb.CharacterMongoDBAdapter;
+import com.rods.magicreator.repositories.character.mongodb.CharacterRepository;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@ExtendWith(SpringExtension.class)
+@Testcontainers
+@SpringBootTest
+public class CharacterMongoDBAdapterContractIT extends IStoreCharactersContract {
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:4.0.10");
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private CharacterMongoDBAdapter adapter;
+
+    @Autowired
+    private CharacterRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Override
+    protected IStoreCharacters store() {
+        return adapter;
+    }
+
+    @Override
+    protected void clear() {
+        repository.deleteAll();
+        cacheManager.getCache("characters").clear();
+        cacheManager.getCache("characterSearches").clear();
+    }
+}
@@ -2,12 +2,21 @@ package com.rods.magicreator.integration.repositories.character.mongodb;
 
 import com.flextrade.jfixture.JFixture;
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterFilter.NameMatch;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorSearchingCharactersException;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorStoringCharacterException;
 import com.rods.magicreator.repositories.character.mongodb.CharacterMongoDBAdapter;
+import com.rods.magicreator.repositories.character.mongodb.CharacterQueries;
 import com.rods.magicreator.repositories.character.mongodb.CharacterRepository;
+import com.rods.magicreator.repositories.character.mongodb.CharacterSearchExplainer;
 import com.rods.magicreator.repositories.character.mongodb.models.CharacterModel;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +24,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -22,10 +33,12 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(SpringExtension.class)
 @Testcontainers
@@ -47,11 +60,19 @@ public class CharacterMongoDBAdapterIT {
     @Autowired
     private CharacterRepository repository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CharacterSearchExplainer explainer;
+
     JFixture fixture = new JFixture();
 
     @BeforeEach
     public void init() {
         repository.deleteAll();
+        //Characters deleted behind the adapter's back must not be found by cached searches
+        cacheManager.getCache("characterSearches").clear();
     }
 
     private Optional<Character> getCachedCharacter(String id) {
@@ -68,7 +89,7 @@ public class CharacterMongoDBAdapterIT {
         Character saved = adapter.create(character);
 
         //Assert
-        assertThat(saved).usingRecursiveComparison().ignoringFields("id").isEqualTo(character);
+        assertThat(saved).usingRecursiveComparison().ignoringFields("id", "version").isEqualTo(character);
         assertThat(saved.getId()).isNotNull();
 
         CharacterModel characterSaved = repository.findById(new ObjectId(saved.getId())).get();
@@ -80,6 +101,25 @@ public class CharacterMongoDBAdapterIT {
         assertThat(characterSaved.getPatronus()).isEqualTo(character.getPatronus());
     }
 
+    @Test
+    void CreateAll_Should_InsertEveryValidCharacter_And_ReportDuplicatesPerItem() throws ErrorStoringCharacterException {
+        //Arrange
+        repository.save(new CharacterModel(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Stag", "Gryffindor", null));
+        Character hermione = new Character(null, "Hermione Granger", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Otter", null);
+        Character harryAgain = new Character(null, "Harry Potter", "Auror", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null);
+        Character rony = new Character(null, "Rony Weasley", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Terrier", null);
+
+        //Act
+        List<CharacterCreationResult> results = adapter.createAll(List.of(hermione, harryAgain, rony));
+
+        //Assert
+        assertThat(results).extracting("index").containsExactly(0, 1, 2);
+        assertThat(results).extracting("success").containsExactly(true, false, true);
+        assertThat(results.get(0).getCharacter().getId()).isNotNull();
+        assertThat(results.get(1).getError()).contains("duplicate key");
+        assertThat(repository.findAll()).extracting("name").containsExactlyInAnyOrder("Harry Potter", "Hermione Granger", "Rony Weasley");
+    }
+
     @Test
     void FindById_Should_ConvertIdCorrectly_And_Find_Characters() throws ErrorSearchingCharactersException {
         //Arrange
@@ -96,23 +136,70 @@ public class CharacterMongoDBAdapterIT {
         assertThat(found.getSchool()).isEqualTo(characterSaved.getSchool());
         assertThat(found.getHouse()).isEqualTo(characterSaved.getHouse());
         assertThat(found.getPatronus()).isEqualTo(characterSaved.getPatronus());
-        assertThat(getCachedCharacter(found.getId()).get()).isEqualTo(found);
+        assertThat(getCachedCharacter(found.getId()).get()).usingRecursiveComparison().isEqualTo(found);
+    }
+
+    @Test
+    void FindAllAfterCursor_Should_WalkThroughEveryCharacterInIdOrder() throws ErrorSearchingCharactersException {
+        //Arrange
+        List<CharacterModel> saved = repository.saveAll(List.of(
+                fixture.create(CharacterModel.class).toBuilder().id(null).build(),
+                fixture.create(CharacterModel.class).toBuilder().id(null).build(),
+                fixture.create(CharacterModel.class).toBuilder().id(null).build()
+        ));
+
+        //Act
+        CharacterSlice first = adapter.findAll(null, 2, CharacterProjection.ALL);
+        CharacterSlice second = adapter.findAll(first.getNext(), 2, CharacterProjection.ALL);
+
+        //Assert
+        assertThat(first.getContent()).extracting("id").containsExactly(saved.get(0).getId().toString(), saved.get(1).getId().toString());
+        assertThat(first.getNext()).isNotNull();
+        assertThat(second.getContent()).extracting("id").containsExactly(saved.get(2).getId().toString());
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void FindAllAfterCursor_Should_RejectCursorsItDidNotIssue() {
+        //Act
+        //Assert
+        ErrorSearchingCharactersException exception = assertThrows(ErrorSearchingCharactersException.class, () -> {
+            adapter.findAll("not-a-cursor", 2, CharacterProjection.ALL);
+        });
+        assertThat(exception.contains(IllegalArgumentException.class)).isTrue();
+    }
+
+    @Test
+    void StreamAll_Should_DeliverEveryCharacterInBatches_And_StopWhenConsumerAsksTo() throws ErrorSearchingCharactersException {
+        //Arrange
+        for (int i = 0; i < 5; i++)
+            repository.save(fixture.create(CharacterModel.class).toBuilder().id(null).build());
+        List<Integer> allBatches = new ArrayList<>();
+        List<Integer> stoppedBatches = new ArrayList<>();
+
+        //Act
+        adapter.streamAll(2, batch -> allBatches.add(batch.size()));
+        adapter.streamAll(2, batch -> stoppedBatches.add(batch.size()) && stoppedBatches.size() < 2);
+
+        //Assert
+        assertThat(allBatches).containsExactly(2, 2, 1);
+        assertThat(stoppedBatches).containsExactly(2, 2);
     }
 
     @Test
     void FindBy_Should_BuildFiltersCorrectly_WhenGivenExactMatchFields() throws ErrorSearchingCharactersException {
         //Arrange
-        CharacterModel draco = new CharacterModel(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "None", "Sonserina");
-        CharacterModel hermione = new CharacterModel(null, "Hermione Granger", "Student", "Hogwarts", "4321Gryffindor", "Otter", "Gryffindor");
-        CharacterModel rony = new CharacterModel(null, "Rony Weasley", "Student", "Hogwarts", "4321Gryffindor", "Terrier", "Gryffindor");
-        CharacterModel minerva = new CharacterModel(null, "Minerva McGonagall", "Professor", "Hogwarts", "4321Gryffindor", "Cat", "Gryffindor");
+        CharacterModel draco = new CharacterModel(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "None", "Sonserina", null);
+        CharacterModel hermione = new CharacterModel(null, "Hermione Granger", "Student", "Hogwarts", "4321Gryffindor", "Otter", "Gryffindor", null);
+        CharacterModel rony = new CharacterModel(null, "Rony Weasley", "Student", "Hogwarts", "4321Gryffindor", "Terrier", "Gryffindor", null);
+        CharacterModel minerva = new CharacterModel(null, "Minerva McGonagall", "Professor", "Hogwarts", "4321Gryffindor", "Cat", "Gryffindor", null);
         repository.saveAll(List.of(draco, hermione, rony, minerva));
 
         //Act
-        List<Character> students = adapter.findBy(null, "Student", null, null, null);
-        List<Character> gryffindor = adapter.findBy(null, null, null, "4321Gryffindor", null);
-        List<Character> gryffindorStudents = adapter.findBy(null, "Student", null, "4321Gryffindor", null);
-        List<Character> noExactMatch = adapter.findBy(null, "Stu", null, "4321Gryf", null);
+        List<Character> students = adapter.findBy(CharacterFilter.builder().role("Student").build(), CharacterProjection.ALL);
+        List<Character> gryffindor = adapter.findBy(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterProjection.ALL);
+        List<Character> gryffindorStudents = adapter.findBy(CharacterFilter.builder().role("Student").house("4321Gryffindor").build(), CharacterProjection.ALL);
+        List<Character> noExactMatch = adapter.findBy(CharacterFilter.builder().role("Stu").house("4321Gryf").build(), CharacterProjection.ALL);
 
         //Assert
         assertThat(students).extracting("name").containsExactlyInAnyOrder("Draco Malfoy", "Hermione Granger", "Rony Weasley");
@@ -124,26 +211,91 @@ public class CharacterMongoDBAdapterIT {
     @Test
     void FindBy_Should_BuildFiltersCorrectly_WhenGivenFieldsThatMatchOnContain() throws ErrorSearchingCharactersException {
         //Arrange
-        CharacterModel draco = new CharacterModel(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "None", "Sonserina");
-        CharacterModel lucius = new CharacterModel(null, "Lucius Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "CantHaveOne", "Sonserina");
-        CharacterModel cissy = new CharacterModel(null, "Narcissa Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "Terrier", "Sonserina");
-        CharacterModel minerva = new CharacterModel(null, "Minerva McGonagall", "Professor", "Hogwarts", "4321Gryffindor", "Cat", "Gryffindor");
+        CharacterModel draco = new CharacterModel(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "None", "Sonserina", null);
+        CharacterModel lucius = new CharacterModel(null, "Lucius Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "CantHaveOne", "Sonserina", null);
+        CharacterModel cissy = new CharacterModel(null, "Narcissa Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "Terrier", "Sonserina", null);
+        CharacterModel minerva = new CharacterModel(null, "Minerva McGonagall", "Professor", "Hogwarts", "4321Gryffindor", "Cat", "Gryffindor", null);
         repository.saveAll(List.of(draco, lucius, cissy, minerva));
 
         //Act
-        List<Character> malfoy = adapter.findBy("Malfoy", null, null, null, null);
-        List<Character> deathEaterMalfoys = adapter.findBy("Malfoy", "Death Eater", null, null, null);
+        List<Character> malfoy = adapter.findBy(CharacterFilter.builder().name("Malfoy").build(), CharacterProjection.ALL);
+        List<Character> deathEaterMalfoys = adapter.findBy(CharacterFilter.builder().name("Malfoy").role("Death Eater").build(), CharacterProjection.ALL);
 
         //Assert
         assertThat(malfoy).extracting("name").containsExactlyInAnyOrder("Draco Malfoy", "Lucius Malfoy", "Narcissa Malfoy");
         assertThat(deathEaterMalfoys).extracting("name").containsExactlyInAnyOrder("Lucius Malfoy", "Narcissa Malfoy");
     }
 
+    @Test
+    void FindBy_Should_MatchNamesByPrefixOrExactlyIgnoringCase() throws ErrorSearchingCharactersException {
+        //Arrange
+        CharacterModel draco = new CharacterModel(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "None", "Sonserina", null);
+        CharacterModel lucius = new CharacterModel(null, "Lucius Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "CantHaveOne", "Sonserina", null);
+        repository.saveAll(List.of(draco, lucius));
+
+        //Act
+        List<Character> byPrefix = adapter.findBy(CharacterFilter.builder().name("Draco").nameMatch(NameMatch.PREFIX).build(), CharacterProjection.ALL);
+        List<Character> notAPrefix = adapter.findBy(CharacterFilter.builder().name("Malfoy").nameMatch(NameMatch.PREFIX).build(), CharacterProjection.ALL);
+        List<Character> ignoringCase = adapter.findBy(CharacterFilter.builder().name("lucius MALFOY").nameMatch(NameMatch.EXACT_IGNORE_CASE).build(), CharacterProjection.ALL);
+
+        //Assert
+        assertThat(byPrefix).extracting("name").containsExactly("Draco Malfoy");
+        assertThat(notAPrefix).isEmpty();
+        assertThat(ignoringCase).extracting("name").containsExactly("Lucius Malfoy");
+    }
+
+    @Test
+    void FindBy_Should_BeAnsweredByAnIndex_ForEverySupportedFilter() {
+        //Arrange
+        List<CharacterFilter> supportedFilters = List.of(
+                CharacterFilter.builder().name("Harry").nameMatch(NameMatch.PREFIX).build(),
+                CharacterFilter.builder().name("harry potter").nameMatch(NameMatch.EXACT_IGNORE_CASE).build(),
+                CharacterFilter.builder().house("4321Gryffindor").build(),
+                CharacterFilter.builder().role("Student").build(),
+                CharacterFilter.builder().school("Hogwarts").build(),
+                CharacterFilter.builder().patronus("Stag").build(),
+                CharacterFilter.builder().house("4321Gryffindor").role("Student").build(),
+                CharacterFilter.builder().school("Hogwarts").house("4321Gryffindor").build(),
+                CharacterFilter.builder().role("Student").school("Hogwarts").patronus("Stag").build()
+        );
+
+        //Act
+        //Assert
+        supportedFilters.forEach(filter -> assertThat(winningPlanOf(CharacterQueries.byFilter(filter)))
+                .as("Winning plan for name %s (%s), role %s, school %s, house %s, patronus %s",
+                        filter.getName(), filter.getNameMatch(), filter.getRole(), filter.getSchool(), filter.getHouse(), filter.getPatronus())
+                .doesNotContain("COLLSCAN"));
+    }
+
+    @Test
+    void Explain_Should_FlagCollectionScans_OnlyForFiltersNoIndexFits() {
+        //Arrange
+        Query byHouse = CharacterQueries.byFilter(CharacterFilter.builder().house("4321Gryffindor").build());
+        Query byNothing = CharacterQueries.byFilter(CharacterFilter.builder().build());
+
+        //Act
+        Document byHousePlan = explainer.explain(byHouse);
+        Document byNothingPlan = explainer.explain(byNothing);
+
+        //Assert
+        assertThat(CharacterSearchExplainer.scansCollection(byHousePlan)).isFalse();
+        assertThat(CharacterSearchExplainer.indexesUsedBy(byHousePlan)).contains("house_role");
+        assertThat(CharacterSearchExplainer.scansCollection(byNothingPlan)).isTrue();
+    }
+
+    private String winningPlanOf(Query query) {
+        Document find = new Document("find", "character").append("filter", query.getQueryObject());
+        query.getCollation().ifPresent(collation -> find.append("collation", collation.toDocument()));
+
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", find));
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+    }
+
     @Test
     void Update_Should_UpdateCorrectlyAnyChangedField() throws ErrorStoringCharacterException {
         //Arrange
         CharacterModel harryFirstDayInSchool = repository.save(new CharacterModel(
-                null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "None", "Gryffindor"
+                null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "None", "Gryffindor", null
         ));
 
         Character harryAdult = new Character(
@@ -153,7 +305,8 @@ public class CharacterMongoDBAdapterIT {
                 harryFirstDayInSchool.getSchool(),
                 harryFirstDayInSchool.getHouse(),
                 harryFirstDayInSchool.getHouseName(),
-                "Stag"
+                "Stag",
+                null
         );
 
         //Act
@@ -175,13 +328,84 @@ public class CharacterMongoDBAdapterIT {
         //Act
         //Assert
         Character found = adapter.findBy(characterSaved.getId().toString()).get();
-        assertThat(getCachedCharacter(found.getId()).get()).isEqualTo(found);
+        assertThat(getCachedCharacter(found.getId()).get()).usingRecursiveComparison().isEqualTo(found);
 
         found.setHouse("new-house");
         Character updated = adapter.update(found);
-        assertThat(getCachedCharacter(found.getId()).get()).isEqualTo(updated);
+        assertThat(getCachedCharacter(found.getId()).get()).usingRecursiveComparison().isEqualTo(updated);
 
         adapter.delete(updated.getId());
         assertThat(getCachedCharacter(found.getId())).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void Patch_Should_PutThePatchedCharacterInFindByIdCache() throws Exception {
+        //Arrange
+        Character harry = adapter.create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "None", null));
+        adapter.findBy(harry.getId());
+
+        //Act
+        Character patched = adapter.patch(harry.getId(), CharacterPatch.builder().patronus("Stag").build()).get();
+
+        //Assert
+        assertThat(getCachedCharacter(harry.getId()).get()).usingRecursiveComparison().isEqualTo(patched);
+        assertThat(patched.getPatronus()).isEqualTo("Stag");
+        assertThat(repository.findById(new ObjectId(harry.getId())).get().getRole()).isEqualTo("Student");
+    }
+
+    @Test
+    void RenameHouse_Should_OnlyWriteCharactersHoldingAnotherName_AndEvictThem() throws Exception {
+        //Arrange
+        Character harry = adapter.create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null));
+        Character hermione = adapter.create(new Character(null, "Hermione Granger", "Student", "Hogwarts", "4321Gryffindor", "Grifinoria", "Otter", null));
+        Character draco = adapter.create(new Character(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", null));
+        adapter.findBy(harry.getId());
+
+        //Act
+        long updated = adapter.renameHouse("4321Gryffindor", "Grifinoria");
+
+        //Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(getCachedCharacter(harry.getId())).isEmpty();
+        assertThat(adapter.findBy(harry.getId()).get().getHouseName()).isEqualTo("Grifinoria");
+        assertThat(repository.findById(new ObjectId(hermione.getId())).get().getVersion()).isEqualTo(hermione.getVersion());
+        assertThat(repository.findById(new ObjectId(draco.getId())).get().getHouseName()).isEqualTo("Sonserina");
+    }
+
+    @Test
+    void UpdateAll_Should_EvictTheCachedCharactersOfTheFilteredHouse() throws Exception {
+        //Arrange
+        Character harry = adapter.create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null));
+        Character draco = adapter.create(new Character(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", null));
+        adapter.findBy(harry.getId());
+        adapter.findBy(draco.getId());
+
+        //Act
+        adapter.updateAll(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterPatch.builder().role("Alumni").build());
+
+        //Assert
+        assertThat(getCachedCharacter(harry.getId())).isEmpty();
+        assertThat(getCachedCharacter(draco.getId())).isPresent();
+        assertThat(adapter.findBy(harry.getId()).get().getRole()).isEqualTo("Alumni");
+    }
+
+    @Test
+    void FindBy_Should_NotServeCachedResults_AfterWritesChangingThem() throws Exception {
+        //Arrange
+        Character harry = adapter.create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null));
+        Character draco = adapter.create(new Character(null, "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", null));
+        CharacterFilter gryffindorStudents = CharacterFilter.builder().house("4321Gryffindor").role("Student").build();
+        CharacterFilter byName = CharacterFilter.builder().name("Malfoy").build();
+        assertThat(adapter.findBy(gryffindorStudents, CharacterProjection.ALL)).extracting("name").containsExactly("Harry Potter");
+        assertThat(adapter.findBy(byName, CharacterProjection.ALL)).extracting("name").containsExactly("Draco Malfoy");
+
+        //Act
+        adapter.update(harry.withRole("Auror"));
+        adapter.create(new Character(null, "Lucius Malfoy", "Death Eater", "Hogwarts", "1234Sonserina", "Sonserina", null, null));
+        adapter.delete(draco.getId());
+
+        //Assert
+        assertThat(adapter.findBy(gryffindorStudents, CharacterProjection.ALL)).isEmpty();
+        assertThat(adapter.findBy(byName, CharacterProjection.ALL)).extracting("name").containsExactly("Lucius Malfoy");
+    }
+}
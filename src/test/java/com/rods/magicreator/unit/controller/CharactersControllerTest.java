@@ -0,0 +1,70 @@
+package com.rods.magicreator.unit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rods.magicreator.controller.CharactersController;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.ports.in.IManageCharacters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+public class CharactersControllerTest {
+
+    private final IManageCharacters charactersManager = mock(IManageCharacters.class);
+
+    private final Character luna = new Character("60c1e2b5f1a2b34c5d6e7f80", "Luna Lovegood", "student", "Hogwarts School of Witchcraft and Wizardry",
+            "Ravenclaw-Id-987", "Ravenclaw", "hare", 3L);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(new CharactersController(charactersManager, 100, 1000))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())))
+                .build();
+        when(charactersManager.findBy(luna.getId())).thenReturn(Optional.of(luna));
+    }
+
+    @Test
+    void FindById_Should_TagEveryFormatOfAVersionWithTheSameWeakETag() throws Exception {
+        //Act
+        MvcResult json = mockMvc.perform(get("/character/{id}", luna.getId()).accept(MediaType.APPLICATION_JSON)).andReturn();
+        MvcResult cbor = mockMvc.perform(get("/character/{id}", luna.getId()).accept(MediaType.APPLICATION_CBOR)).andReturn();
+
+        //Assert
+        assertThat(json.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(cbor.getResponse().getContentType()).startsWith(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(json.getResponse().getContentAsByteArray()).isNotEqualTo(cbor.getResponse().getContentAsByteArray());
+        assertThat(json.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"60c1e2b5f1a2b34c5d6e7f80-3\"");
+        assertThat(cbor.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(json.getResponse().getHeader(HttpHeaders.ETAG));
+        assertThat(cbor.getResponse().getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void FindById_Should_AnswerNotModified_WhenIfNoneMatchHoldsTheWeakETag() throws Exception {
+        //Act
+        MvcResult cbor = mockMvc.perform(get("/character/{id}", luna.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"60c1e2b5f1a2b34c5d6e7f80-3\""))
+                .andReturn();
+
+        //Assert
+        assertThat(cbor.getResponse().getStatus()).isEqualTo(304);
+        assertThat(cbor.getResponse().getContentAsByteArray()).isEmpty();
+    }
+}
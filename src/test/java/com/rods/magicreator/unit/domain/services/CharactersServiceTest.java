@@ -2,6 +2,11 @@ package com.rods.magicreator.unit.domain.services;
 
 import com.flextrade.jfixture.JFixture;
 import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterCreationResult;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterPatch;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.models.CharacterSlice;
 import com.rods.magicreator.domain.models.House;
 import com.rods.magicreator.domain.ports.in.IDisplayHouses;
 import com.rods.magicreator.domain.ports.in.IDisplayHouses.CouldNotSearchHousesException;
@@ -13,6 +18,8 @@ import com.rods.magicreator.domain.ports.out.IStoreCharacters;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorDeletingCharacterException;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorSearchingCharactersException;
 import com.rods.magicreator.domain.ports.out.IStoreCharacters.ErrorStoringCharacterException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.TooManyPendingWritesException;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters.WritingLaterDisabledException;
 import com.rods.magicreator.domain.CharactersService;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
@@ -144,6 +151,82 @@ public class CharactersServiceTest {
         assertThat(exception.getMostSpecificCause()).isInstanceOfAny(RuntimeException.class);
     }
 
+    // ----------- CREATEALL() TESTS ---------------------------------
+
+    @Test
+    void CreateAll_Should_ValidateEachDistinctHouseOnlyOnce() throws ErrorStoringCharacterException, CouldNotCreateCharactersException, ErrorObtainingHousesException {
+        //Arrange
+        Character first = characterReceived.withName("first");
+        Character second = characterReceived.withName("second");
+        Character third = characterReceived.withName("third");
+
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.createAll(anyList())).thenAnswer(invocation -> {
+            List<Character> toSave = invocation.getArgument(0);
+            List<CharacterCreationResult> results = new ArrayList<>();
+            for (int i = 0; i < toSave.size(); i++)
+                results.add(CharacterCreationResult.success(i, toSave.get(i).withId("id-" + i)));
+            return results;
+        });
+
+        //Act
+        List<CharacterCreationResult> results = service.createAll(List.of(first, second, third));
+
+        //Assert
+        assertThat(results).extracting("success").containsOnly(true);
+        assertThat(results).extracting("character.houseName").containsOnly(house.getName());
+        verify(housesRepositoryMock, times(1)).getHouseById(houseId);
+        verify(charactersRepositoryMock, times(1)).createAll(anyList());
+    }
+
+    @Test
+    void CreateAll_Should_ReportInvalidItemsWithoutStoringThemAndKeepTheirPositions() throws ErrorStoringCharacterException, CouldNotCreateCharactersException, ErrorObtainingHousesException {
+        //Arrange
+        Character valid = characterReceived.withName("valid");
+        Character withId = characterReceived.withName("with-id").withId("a-non-null-id");
+        Character withInvalidHouse = characterReceived.withName("invalid-house").withHouse("invalid-house");
+        Character duplicated = characterReceived.withName("duplicated");
+
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(housesRepositoryMock.getHouseById("invalid-house")).thenReturn(Optional.empty());
+        when(charactersRepositoryMock.createAll(anyList())).thenAnswer(invocation -> {
+            List<Character> toSave = invocation.getArgument(0);
+            return List.of(
+                    CharacterCreationResult.success(0, toSave.get(0).withId("an-id")),
+                    CharacterCreationResult.failure(1, toSave.get(1), "Duplicate name")
+            );
+        });
+
+        //Act
+        List<CharacterCreationResult> results = service.createAll(List.of(valid, withId, withInvalidHouse, duplicated));
+
+        //Assert
+        assertThat(results).extracting("index").containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting("success").containsExactly(true, false, false, false);
+        assertThat(results.get(1).getError()).isEqualTo("Character Id must be null - Did you mean to update it?");
+        assertThat(results.get(2).getError()).isEqualTo("Invalid house provided as argument - House id: invalid-house");
+        assertThat(results.get(3).getError()).isEqualTo("Duplicate name");
+        verify(charactersRepositoryMock).createAll(argThat(toSave -> toSave.size() == 2
+                && toSave.get(0).getName().equals("valid")
+                && toSave.get(1).getName().equals("duplicated")));
+    }
+
+    @Test
+    void CreateAll_Should_ThrowAnExceptionIfGettingHouseThrowsAnError() throws ErrorObtainingHousesException, ErrorStoringCharacterException {
+        //Arrange
+        Character character = characterReceived.withHouse("obtainer-throws-error");
+
+        when(housesRepositoryMock.getHouseById("obtainer-throws-error")).thenThrow(new RuntimeException("Error retrieving Houses information"));
+
+        //Act
+        //Assert
+        CouldNotCreateCharactersException exception = assertThrows(CouldNotCreateCharactersException.class, () -> {
+            service.createAll(List.of(character));
+        });
+        assertThat(exception.getMessage()).contains("Error retrieving Houses information");
+        verify(charactersRepositoryMock, never()).createAll(anyList());
+    }
+
     // ----------- UPDATE() TESTS ---------------------------------
 
     @Test
@@ -165,6 +248,208 @@ public class CharactersServiceTest {
         assertThat(updated.getId()).isEqualTo(character.getId());
     }
 
+    // ----------- CREATELATER() AND UPDATELATER() TESTS ---------------------------------
+
+    @Test
+    void CreateLater_Should_HandTheCharacterWithItsHouseNameToStorage() throws Exception {
+        //Arrange
+        Character characterQueued = characterReceived.withHouseName(house.getName()).withId(fixture.create(String.class));
+
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.createLater(argThat(character -> house.getName().equals(character.getHouseName()))))
+                .thenReturn(characterQueued);
+
+        //Act
+        Character queued = service.createLater(characterReceived);
+
+        //Assert
+        assertThat(queued).isEqualTo(characterQueued);
+        verify(charactersRepositoryMock, never()).create(any(Character.class));
+    }
+
+    @Test
+    void CreateLater_Should_ThrowWritesBackedUp_WhenStorageHasTooManyPendingWrites() throws Exception {
+        //Arrange
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.createLater(any(Character.class))).thenThrow(new TooManyPendingWritesException(10));
+
+        //Act
+        //Assert
+        CharacterWritesBackedUpException exception = assertThrows(CharacterWritesBackedUpException.class, () -> {
+            service.createLater(characterReceived);
+        });
+        assertThat(exception.getCause()).isInstanceOf(TooManyPendingWritesException.class);
+    }
+
+    @Test
+    void UpdateLater_Should_ThrowWritesLaterDisabled_WhenStorageDoesNotWriteBehind() throws Exception {
+        //Arrange
+        Character character = characterReceived.withId(fixture.create(String.class));
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.updateLater(any(Character.class))).thenThrow(new WritingLaterDisabledException());
+
+        //Act
+        //Assert
+        CharacterWritesLaterDisabledException exception = assertThrows(CharacterWritesLaterDisabledException.class, () -> {
+            service.updateLater(character);
+        });
+        assertThat(exception.getMessage()).contains("Prefer: respond-async");
+    }
+
+    @Test
+    void UpdateLater_Should_NotCallStorageAndThrowAnExceptionIfProvidedCharacterHasNoId() throws Exception {
+        //Arrange
+        //Act
+        //Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            service.updateLater(characterReceived);
+        });
+        assertThat(exception.getMessage()).contains("Character Id must not be null - Did you mean to create it?");
+        verify(charactersRepositoryMock, never()).updateLater(any(Character.class));
+    }
+
+    // ----------- PATCH() TESTS ---------------------------------
+
+    @Test
+    void Patch_Should_NotLookUpTheHouse_WhenThePatchDoesNotChangeIt() throws Exception {
+        //Arrange
+        String id = fixture.create(String.class);
+        CharacterPatch patch = CharacterPatch.builder().role("Auror").build();
+        Character patched = characterReceived.withId(id).withRole("Auror");
+
+        when(charactersRepositoryMock.patch(eq(id), any(CharacterPatch.class))).thenReturn(Optional.of(patched));
+
+        //Act
+        Character result = service.patch(id, patch);
+
+        //Assert
+        assertThat(result).usingRecursiveComparison().isEqualTo(patched);
+        verify(housesRepositoryMock, never()).getHouseById(any());
+    }
+
+    @Test
+    void Patch_Should_SetTheHouseName_WhenThePatchChangesTheHouse() throws Exception {
+        //Arrange
+        String id = fixture.create(String.class);
+        Character patched = characterReceived.withId(id).withHouseName(house.getName());
+
+        when(charactersRepositoryMock.findBy(id)).thenReturn(Optional.of(characterReceived.withId(id).withHouse("another-house")));
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.patch(eq(id), any(CharacterPatch.class))).thenReturn(Optional.of(patched));
+
+        //Act
+        service.patch(id, CharacterPatch.builder().house(houseId).houseName("sent-by-client").build());
+
+        //Assert
+        verify(charactersRepositoryMock).patch(eq(id), argThat(patch -> house.getName().equals(patch.getHouseName()) && houseId.equals(patch.getHouse())));
+    }
+
+    @Test
+    void Patch_Should_NotCallStorageAndThrowAnExceptionIfHouseDoesNotExist() throws Exception {
+        //Arrange
+        String id = fixture.create(String.class);
+        when(charactersRepositoryMock.findBy(id)).thenReturn(Optional.of(characterReceived.withId(id)));
+        when(housesRepositoryMock.getHouseById("invalid-house")).thenReturn(Optional.empty());
+
+        //Act
+        //Assert
+        assertThrows(InvalidHouseProvidedException.class, () -> service.patch(id, CharacterPatch.builder().house("invalid-house").build()));
+        verify(charactersRepositoryMock, never()).patch(any(), any());
+    }
+
+    @Test
+    void Patch_Should_NotLookUpTheHouse_WhenThePatchResendsTheCurrentOne() throws Exception {
+        //Arrange
+        String id = fixture.create(String.class);
+        Character current = characterReceived.withId(id).withHouseName(house.getName());
+        Character patched = current.withRole("Auror");
+
+        when(charactersRepositoryMock.findBy(id)).thenReturn(Optional.of(current));
+        when(charactersRepositoryMock.patch(eq(id), any(CharacterPatch.class))).thenReturn(Optional.of(patched));
+
+        //Act
+        Character unchanged = service.patch(id, CharacterPatch.builder().house(houseId).build());
+        Character result = service.patch(id, CharacterPatch.builder().house(houseId).role("Auror").build());
+
+        //Assert
+        assertThat(unchanged).isSameAs(current);
+        assertThat(result).isSameAs(patched);
+        verify(charactersRepositoryMock).patch(eq(id), argThat(patch -> patch.getHouse() == null && "Auror".equals(patch.getRole())));
+        verify(housesRepositoryMock, never()).getHouseById(any());
+    }
+
+    @Test
+    void Patch_Should_ThrowCharacterNotFound_WhenNoCharacterHasTheId() throws Exception {
+        //Arrange
+        String id = fixture.create(String.class);
+        when(charactersRepositoryMock.patch(eq(id), any(CharacterPatch.class))).thenReturn(Optional.empty());
+
+        //Act
+        //Assert
+        CharacterNotFoundException exception = assertThrows(CharacterNotFoundException.class, () -> service.patch(id, CharacterPatch.builder().role("Auror").build()));
+        assertThat(exception.getMessage()).isEqualTo("Id not corresponding to any Character - Id: " + id);
+    }
+
+    @Test
+    void Patch_Should_NotCallStorage_WhenThePatchIsEmpty() throws Exception {
+        //Act
+        //Assert
+        assertThrows(IllegalArgumentException.class, () -> service.patch(fixture.create(String.class), CharacterPatch.builder().build()));
+        verify(charactersRepositoryMock, never()).patch(any(), any());
+    }
+
+    // ----------- UPDATEALL() AND DELETEALL() TESTS ---------------------------------
+
+    @Test
+    void UpdateAll_Should_SetTheHouseName_WhenThePatchChangesTheHouse() throws Exception {
+        //Arrange
+        CharacterFilter filter = CharacterFilter.builder().school("Hogwarts").build();
+        when(housesRepositoryMock.getHouseById(houseId)).thenReturn(Optional.of(house));
+        when(charactersRepositoryMock.updateAll(eq(filter), any(CharacterPatch.class))).thenReturn(3L);
+
+        //Act
+        long updated = service.updateAll(filter, CharacterPatch.builder().house(houseId).build());
+
+        //Assert
+        assertThat(updated).isEqualTo(3L);
+        verify(charactersRepositoryMock).updateAll(eq(filter), argThat(patch -> house.getName().equals(patch.getHouseName())));
+    }
+
+    @Test
+    void UpdateAll_Should_NotLookUpTheHouse_WhenTheFilterAlreadyHoldsIt() throws Exception {
+        //Arrange
+        CharacterFilter filter = CharacterFilter.builder().house(houseId).build();
+        when(charactersRepositoryMock.updateAll(eq(filter), any(CharacterPatch.class))).thenReturn(2L);
+
+        //Act
+        long unchanged = service.updateAll(filter, CharacterPatch.builder().house(houseId).build());
+        long updated = service.updateAll(filter, CharacterPatch.builder().house(houseId).role("Alumni").build());
+
+        //Assert
+        assertThat(unchanged).isZero();
+        assertThat(updated).isEqualTo(2L);
+        verify(charactersRepositoryMock).updateAll(eq(filter), argThat(patch -> patch.getHouse() == null && "Alumni".equals(patch.getRole())));
+        verify(housesRepositoryMock, never()).getHouseById(any());
+    }
+
+    @Test
+    void UpdateAll_Should_NotCallStorage_WhenNoFilterIsGiven_OrANameIsSet() throws Exception {
+        //Act
+        //Assert
+        assertThrows(IllegalArgumentException.class, () -> service.updateAll(CharacterFilter.builder().build(), CharacterPatch.builder().role("Auror").build()));
+        assertThrows(IllegalArgumentException.class, () -> service.updateAll(CharacterFilter.builder().role("Student").build(), CharacterPatch.builder().name("Harry Potter").build()));
+        verify(charactersRepositoryMock, never()).updateAll(any(), any());
+    }
+
+    @Test
+    void DeleteAll_Should_NotCallStorage_WhenNoFilterIsGiven() throws Exception {
+        //Act
+        //Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> service.deleteAll(CharacterFilter.builder().build()));
+        assertThat(exception.getMessage()).contains("At least one filter must be provided");
+        verify(charactersRepositoryMock, never()).deleteAll(any());
+    }
+
     @Test
     void Update_Should_NotCallStorageAndThrowAnExceptionIfProvidedCharacterHasIdNull() throws ErrorObtainingHousesException, ErrorStoringCharacterException {
         //Arrange
@@ -235,6 +520,27 @@ public class CharactersServiceTest {
         assertThat(exception.getMostSpecificCause()).isInstanceOfAny(RuntimeException.class);
     }
 
+    // ----------- RECONCILEHOUSENAMES() TESTS ---------------------------------
+
+    @Test
+    void ReconcileHouseNames_Should_RenameEachHouse_AndKeepGoingPastFailures() throws Exception {
+        //Arrange
+        House gryffindor = new House("4321Gryffindor", "Gryffindor Renamed", "Hogwarts");
+        House slytherin = new House("1234Sonserina", "Slytherin", "Hogwarts");
+        House ravenclaw = new House("987Ravenclaw", "Ravenclaw Renamed", "Hogwarts");
+
+        when(charactersRepositoryMock.renameHouse(gryffindor.getId(), gryffindor.getName())).thenReturn(3L);
+        when(charactersRepositoryMock.renameHouse(slytherin.getId(), slytherin.getName())).thenThrow(new ErrorStoringCharacterException("Error", null));
+        when(charactersRepositoryMock.renameHouse(ravenclaw.getId(), ravenclaw.getName())).thenReturn(2L);
+
+        //Act
+        long updated = service.reconcileHouseNames(List.of(gryffindor, slytherin, ravenclaw));
+
+        //Assert
+        assertThat(updated).isEqualTo(5);
+        verify(charactersRepositoryMock).renameHouse(ravenclaw.getId(), ravenclaw.getName());
+    }
+
     // ----------- FINDALL() TESTS ---------------------------------
 
     @Test
@@ -285,6 +591,33 @@ public class CharactersServiceTest {
         assertThat(exception.getMostSpecificCause()).isInstanceOfAny(RuntimeException.class);
     }
 
+    @Test
+    void FindAllAfterCursor_Should_ReturnTheSliceFromStorage() throws ErrorSearchingCharactersException, CouldNotSearchCharactersException {
+        //Arrange
+        CharacterSlice slice = new CharacterSlice(List.of(fixture.create(Character.class)), 1, "a-cursor");
+
+        when(charactersRepositoryMock.findAll("previous-cursor", 1, CharacterProjection.ALL)).thenReturn(slice);
+
+        //Act
+        CharacterSlice sliceRetrieved = service.findAll("previous-cursor", 1, CharacterProjection.ALL);
+
+        //Assert
+        assertThat(sliceRetrieved).usingRecursiveComparison().isEqualTo(slice);
+    }
+
+    @Test
+    void FindAllAfterCursor_Should_ThrowExceptionWhenSearchHasAnError() throws ErrorSearchingCharactersException {
+        //Arrange
+        when(charactersRepositoryMock.findAll("previous-cursor", 1, CharacterProjection.ALL)).thenThrow(new ErrorSearchingCharactersException(new RuntimeException("Error reaching db")));
+
+        //Act
+        //Assert
+        CouldNotSearchCharactersException exception = assertThrows(CouldNotSearchCharactersException.class, () -> {
+            service.findAll("previous-cursor", 1, CharacterProjection.ALL);
+        });
+        assertThat(exception.getCause()).isInstanceOfAny(ErrorSearchingCharactersException.class);
+    }
+
     // ----------- FINDBY() TESTS ---------------------------------
 
     @Test
@@ -334,16 +667,17 @@ public class CharactersServiceTest {
     @Test
     void FindByFilters_Should_ReturnCorrectlyGivenThereAreCharacters() throws ErrorSearchingCharactersException, CouldNotSearchCharactersException {
         //Arrange
+        CharacterFilter filter = CharacterFilter.builder().name("a-name").role("a-role").school("a-school").house("a-house").patronus("a-patronus").build();
         List<Character> characters = List.of(
                 fixture.create(Character.class),
                 fixture.create(Character.class)
         );
 
-        when(charactersRepositoryMock.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus"))
+        when(charactersRepositoryMock.findBy(filter, CharacterProjection.ALL))
                 .thenReturn(characters);
 
         //Act
-        List<Character> charactersRetrieved = service.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus");
+        List<Character> charactersRetrieved = service.findBy(filter, CharacterProjection.ALL);
 
         //Assert
         assertThat(charactersRetrieved).usingRecursiveComparison().isEqualTo(characters);
@@ -352,11 +686,12 @@ public class CharactersServiceTest {
     @Test
     void FindByFilters_Should_ReturnCorrectlyEvenThoughThereAreNoCharacters() throws ErrorSearchingCharactersException, CouldNotSearchCharactersException {
         //Arrange
-        when(charactersRepositoryMock.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus"))
+        CharacterFilter filter = CharacterFilter.builder().name("a-name").role("a-role").school("a-school").house("a-house").patronus("a-patronus").build();
+        when(charactersRepositoryMock.findBy(filter, CharacterProjection.ALL))
                 .thenReturn(Collections.emptyList());
 
         //Act
-        List<Character> charactersRetrieved = service.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus");
+        List<Character> charactersRetrieved = service.findBy(filter, CharacterProjection.ALL);
 
         //Assert
         assertThat(charactersRetrieved).isEmpty();
@@ -365,19 +700,35 @@ public class CharactersServiceTest {
     @Test
     void FindByFilters_Should_ThrowExceptionWhenSearchHasAnError() throws ErrorSearchingCharactersException, CouldNotSearchCharactersException {
         //Arrange
-        when(charactersRepositoryMock.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus"))
+        CharacterFilter filter = CharacterFilter.builder().name("a-name").role("a-role").school("a-school").house("a-house").patronus("a-patronus").build();
+        when(charactersRepositoryMock.findBy(filter, CharacterProjection.ALL))
                 .thenThrow(new ErrorSearchingCharactersException(new RuntimeException("Error reaching db")));
 
         //Act
         //Assert
         CouldNotSearchCharactersException exception = assertThrows(CouldNotSearchCharactersException.class, () -> {
-            service.findBy("a-name", "a-role", "a-school", "a-house", "a-patronus");
+            service.findBy(filter, CharacterProjection.ALL);
         });
         assertThat(exception.getMessage()).contains("Error searching characters");
         assertThat(exception.getCause()).isInstanceOfAny(ErrorSearchingCharactersException.class);
         assertThat(exception.getMostSpecificCause()).isInstanceOfAny(RuntimeException.class);
     }
 
+    @Test
+    void FindByFilter_Should_ReturnCorrectlyGivenThereAreCharacters() throws ErrorSearchingCharactersException, CouldNotSearchCharactersException {
+        //Arrange
+        CharacterFilter filter = CharacterFilter.builder().name("a-name").nameMatch(CharacterFilter.NameMatch.PREFIX).house("a-house").build();
+        List<Character> characters = List.of(fixture.create(Character.class));
+
+        when(charactersRepositoryMock.findBy(filter, CharacterProjection.ALL)).thenReturn(characters);
+
+        //Act
+        List<Character> charactersRetrieved = service.findBy(filter, CharacterProjection.ALL);
+
+        //Assert
+        assertThat(charactersRetrieved).usingRecursiveComparison().isEqualTo(characters);
+    }
+
     // ----------- DELETE() TESTS ---------------------------------
 
     @Test
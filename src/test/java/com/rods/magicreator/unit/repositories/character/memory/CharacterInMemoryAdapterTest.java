@@ -0,0 +1,38 @@
+package com.rods.magicreator.unit.repositories.character.memory;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.domain.ports.out.IStoreCharacters;
+import com.rods.magicreator.integration.repositories.character.IStoreCharactersContract;
+import com.rods.magicreator.repositories.character.memory.CharacterInMemoryAdapter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharacterInMemoryAdapterTest extends IStoreCharactersContract {
+
+    private CharacterInMemoryAdapter adapter = new CharacterInMemoryAdapter();
+
+    @Override
+    protected IStoreCharacters store() {
+        return adapter;
+    }
+
+    @Override
+    protected void clear() {
+        adapter = new CharacterInMemoryAdapter();
+    }
+
+    @Test
+    void Create_Should_KeepItsOwnCopy_OfTheCharacterGiven() throws Exception {
+        //Arrange
+        Character harry = adapter.create(new Character(null, "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null));
+
+        //Act
+        harry.setHouse("1234Sonserina");
+
+        //Assert
+        assertThat(adapter.findBy(CharacterFilter.builder().house("4321Gryffindor").build(), CharacterProjection.ALL)).extracting("name").containsExactly("Harry Potter");
+    }
+}
@@ -0,0 +1,91 @@
+package com.rods.magicreator.unit.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.repositories.character.mongodb.CharacterCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharacterCacheTest {
+
+    private final ConcurrentMapCache characters = new ConcurrentMapCache("characters");
+    private final CharacterCache cache = new CharacterCache(characters);
+
+    private final Character harry = new Character("1", "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", 1L);
+    private final Character draco = new Character("2", "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", 1L);
+    private final Character viktor = new Character("3", "Viktor Krum", "Student", "Durmstrang", null, null, null, 1L);
+
+    @Test
+    void Get_Should_ReadOnlyOnce_WhileNothingIsEvicted() {
+        //Arrange
+        cache.get(harry.getId(), () -> Optional.of(harry));
+
+        //Act
+        Optional<Character> found = cache.get(harry.getId(), Optional::empty);
+
+        //Assert
+        assertThat(found).containsSame(harry);
+    }
+
+    @Test
+    void EvictMatching_Should_EvictOnlyTheCharactersOfTheFilteredHouse() {
+        //Arrange
+        cache.put(harry);
+        cache.put(draco);
+
+        //Act
+        cache.evictMatching(CharacterFilter.builder().house("4321Gryffindor").role("Student").build());
+
+        //Assert
+        assertThat(characters.get(harry.getId())).isNull();
+        assertThat(characters.get(draco.getId())).isNotNull();
+    }
+
+    @Test
+    void EvictMatching_Should_EvictOnlyTheCharactersOfTheFilteredSchool_WhenNoHouseIsFiltered() {
+        //Arrange
+        cache.put(harry);
+        cache.put(viktor);
+
+        //Act
+        cache.evictMatching(CharacterFilter.builder().school("Durmstrang").build());
+
+        //Assert
+        assertThat(characters.get(harry.getId())).isNotNull();
+        assertThat(characters.get(viktor.getId())).isNull();
+    }
+
+    @Test
+    void EvictMatching_Should_EvictEverything_WhenNeitherHouseNorSchoolIsFiltered() {
+        //Arrange
+        cache.put(harry);
+        cache.put(viktor);
+
+        //Act
+        cache.evictMatching(CharacterFilter.builder().role("Student").build());
+
+        //Assert
+        assertThat(characters.get(harry.getId())).isNull();
+        assertThat(characters.get(viktor.getId())).isNull();
+    }
+
+    @Test
+    void Get_Should_NotKeepCharactersRead_WhileTheirTagsWereEvicted() {
+        //Arrange
+        CharacterFilter gryffindor = CharacterFilter.builder().house("4321Gryffindor").build();
+
+        //Act
+        Optional<Character> found = cache.get(harry.getId(), () -> {
+            cache.evictMatching(gryffindor);
+            return Optional.of(harry);
+        });
+
+        //Assert
+        assertThat(found).containsSame(harry);
+        assertThat(characters.get(harry.getId())).isNull();
+    }
+}
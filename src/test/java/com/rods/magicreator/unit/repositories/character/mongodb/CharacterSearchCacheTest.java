@@ -0,0 +1,113 @@
+package com.rods.magicreator.unit.repositories.character.mongodb;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterFilter;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.repositories.character.mongodb.CharacterSearchCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharacterSearchCacheTest {
+
+    private final CharacterSearchCache cache = new CharacterSearchCache(new ConcurrentMapCache("characterSearches"));
+    private final AtomicInteger searches = new AtomicInteger();
+
+    private final Character harry = new Character("1", "Harry Potter", "Student", "Hogwarts", "4321Gryffindor", "Gryffindor", "Stag", null);
+    private final Character draco = new Character("2", "Draco Malfoy", "Student", "Hogwarts", "1234Sonserina", "Sonserina", "None", null);
+
+    private final CharacterFilter gryffindorStudents = CharacterFilter.builder().house("4321Gryffindor").role("Student").build();
+
+    @Test
+    void Get_Should_SearchOnlyOnce_WhileNothingIsWritten() {
+        //Arrange
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Act
+        List<Character> found = cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Assert
+        assertThat(found).containsExactly(harry);
+        assertThat(searches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void Get_Should_SearchAgain_AfterWritingACharacterTheSearchMatches() {
+        //Arrange
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Act
+        cache.invalidate(harry, harry.withRole("Auror"));
+        List<Character> found = cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of()));
+
+        //Assert
+        assertThat(found).isEmpty();
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void Get_Should_KeepServingCachedResults_AfterWritingCharactersOfOtherValues() {
+        //Arrange
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Act
+        cache.invalidate(draco.withRole("Death Eater"));
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Assert
+        assertThat(searches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void Get_Should_SearchAgain_ForNameOnlyFilters_AfterAnyWrite() {
+        //Arrange
+        CharacterFilter byName = CharacterFilter.builder().name("Malfoy").build();
+        cache.get(byName, CharacterProjection.ALL, counting(List.of(draco)));
+
+        //Act
+        cache.invalidate(harry);
+        cache.get(byName, CharacterProjection.ALL, counting(List.of(draco)));
+
+        //Assert
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void Get_Should_SearchAgain_AfterInvalidatingAll() {
+        //Arrange
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Act
+        cache.invalidateAll();
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Assert
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void Get_Should_CacheEveryProjectionApart() {
+        //Arrange
+        CharacterProjection names = CharacterProjection.of(List.of("name"));
+        cache.get(gryffindorStudents, CharacterProjection.ALL, counting(List.of(harry)));
+
+        //Act
+        List<Character> found = cache.get(gryffindorStudents, names, counting(List.of(names.apply(harry))));
+
+        //Assert
+        assertThat(found.get(0).getHouse()).isNull();
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    private Supplier<List<Character>> counting(List<Character> result) {
+        return () -> {
+            searches.incrementAndGet();
+            return result;
+        };
+    }
+}
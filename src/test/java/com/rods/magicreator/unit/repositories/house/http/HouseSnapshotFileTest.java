@@ -0,0 +1,75 @@
+package com.rods.magicreator.unit.repositories.house.http;
+
+import com.flextrade.jfixture.JFixture;
+import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.repositories.house.http.HouseSnapshotFile;
+import com.rods.magicreator.repositories.house.http.HouseSnapshotFile.Persisted;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class HouseSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    JFixture fixture = new JFixture();
+
+    @Test
+    void Load_Should_ReturnTheHousesLastSaved() {
+        //Arrange
+        HouseSnapshotFile file = new HouseSnapshotFile(directory.resolve("houses.json"));
+        House house1 = fixture.create(House.class);
+        House house2 = fixture.create(House.class);
+        Instant fetchedAt = Instant.parse("2021-06-01T10:15:30Z");
+        file.save(List.of(fixture.create(House.class)), fetchedAt.minusSeconds(3600));
+        file.save(List.of(house1, house2), fetchedAt);
+
+        //Act
+        Optional<Persisted> persisted = file.load();
+
+        //Assert
+        assertThat(persisted.get().getFetchedAt()).isEqualTo(fetchedAt);
+        assertThat(persisted.get().getHouses())
+                .extracting("id", "name", "school")
+                .containsExactly(tuple(house1.getId(), house1.getName(), house1.getSchool()),
+                        tuple(house2.getId(), house2.getName(), house2.getSchool()));
+    }
+
+    @Test
+    void Save_Should_NeverReplaceHousesWithAnEmptyList() {
+        //Arrange
+        HouseSnapshotFile file = new HouseSnapshotFile(directory.resolve("houses.json"));
+        House house = fixture.create(House.class);
+        file.save(List.of(house), Instant.now());
+
+        //Act
+        file.save(Collections.emptyList(), Instant.now());
+
+        //Assert
+        assertThat(file.load().get().getHouses()).extracting("id").containsExactly(house.getId());
+    }
+
+    @Test
+    void Load_Should_BeEmpty_WhenTheFileIsMissingOrCorrupt() throws Exception {
+        //Arrange
+        Path corrupt = Files.writeString(directory.resolve("corrupt.json"), "{\"fetchedAt\": \"yesterday\", \"houses\": [");
+
+        //Act
+        Optional<Persisted> missing = new HouseSnapshotFile(directory.resolve("missing.json")).load();
+        Optional<Persisted> unreadable = new HouseSnapshotFile(corrupt).load();
+
+        //Assert
+        assertThat(missing).isEmpty();
+        assertThat(unreadable).isEmpty();
+    }
+}
@@ -2,35 +2,54 @@ package com.rods.magicreator.unit.repositories.house.http;
 
 import com.flextrade.jfixture.JFixture;
 import com.rods.magicreator.domain.models.House;
+import com.rods.magicreator.domain.models.HousesRenamed;
 import com.rods.magicreator.domain.ports.out.IObtainHousesInfo.ErrorObtainingHousesException;
+import com.rods.magicreator.repositories.house.http.HouseDirectory;
+import com.rods.magicreator.repositories.house.http.HouseSnapshotFile;
 import com.rods.magicreator.repositories.house.http.PotterApiClient;
 import com.rods.magicreator.repositories.house.http.PotterApiHttpAdapter;
 import com.rods.magicreator.repositories.house.http.models.HouseModel;
 import com.rods.magicreator.repositories.house.http.models.HouseModelRoot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class PotterApiHTTPAdapterTest {
 
     public static PotterApiClient houseApiMock = Mockito.mock(PotterApiClient.class);
 
-    private final PotterApiHttpAdapter adapter = new PotterApiHttpAdapter(houseApiMock);
+    private final List<Runnable> backgroundRefreshes = new ArrayList<>();
+    private final List<Object> published = new ArrayList<>();
+
+    @TempDir
+    Path snapshots;
+    private HouseSnapshotFile snapshotFile;
+    private PotterApiHttpAdapter adapter;
 
     JFixture fixture = new JFixture();
 
     @BeforeEach
     public void init() {
         reset(houseApiMock);
+        snapshotFile = new HouseSnapshotFile(snapshots.resolve("houses.json"));
+        adapter = new PotterApiHttpAdapter(new HouseDirectory(houseApiMock, Duration.ofHours(1), Runnable::run, new SimpleMeterRegistry(), new ConcurrentMapCache("unknownHouses"), published::add, snapshotFile));
     }
 
     @Test
@@ -88,4 +107,152 @@ public class PotterApiHTTPAdapterTest {
             adapter.getHouseById("some-exception-will-be-thrown");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void getHouseById_ShouldNotCallApiAgainWhileHousesAreFresh() throws ErrorObtainingHousesException {
+        //Arrange
+        HouseModel house1 = fixture.create(HouseModel.class);
+        HouseModel house2 = fixture.create(HouseModel.class);
+
+        when(houseApiMock.getHouses()).thenReturn(HouseModelRoot.builder().houses(List.of(house1, house2)).build());
+
+        //Act
+        adapter.getHouseById(house1.getId());
+        adapter.getHouseById(house2.getId());
+        adapter.getHouses();
+
+        //Assert
+        verify(houseApiMock, times(1)).getHouses();
+    }
+
+    @Test
+    void getHouses_ShouldServeStaleHousesWhileRefreshingThemInBackground() throws ErrorObtainingHousesException {
+        //Arrange
+        HouseModel house1 = fixture.create(HouseModel.class);
+        HouseModel house2 = fixture.create(HouseModel.class);
+        PotterApiHttpAdapter staleAdapter = new PotterApiHttpAdapter(new HouseDirectory(houseApiMock, Duration.ZERO, backgroundRefreshes::add, new SimpleMeterRegistry(), new ConcurrentMapCache("unknownHouses"), published::add, snapshotFile));
+
+        when(houseApiMock.getHouses())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1)).build())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1, house2)).build());
+
+        //Act
+        List<House> firstLoad = staleAdapter.getHouses();
+        List<House> stale = staleAdapter.getHouses();
+        int refreshesScheduled = backgroundRefreshes.size();
+        backgroundRefreshes.forEach(Runnable::run);
+        List<House> refreshed = staleAdapter.getHouses();
+
+        //Assert
+        assertThat(firstLoad).extracting("id").containsExactly(house1.getId());
+        assertThat(stale).extracting("id").containsExactly(house1.getId());
+        assertThat(refreshesScheduled).isEqualTo(1);
+        assertThat(refreshed).extracting("id").containsExactly(house1.getId(), house2.getId());
+    }
+
+    @Test
+    void getHouseById_ShouldOnlyRefreshOnceForTheSameUnknownId() throws ErrorObtainingHousesException {
+        //Arrange
+        when(houseApiMock.getHouses()).thenReturn(HouseModelRoot.builder().houses(List.of(fixture.create(HouseModel.class))).build());
+
+        //Act
+        adapter.getHouseById("unknown-id");
+        adapter.getHouseById("unknown-id");
+        adapter.getHouseById("unknown-id");
+
+        //Assert
+        verify(houseApiMock, times(2)).getHouses();
+    }
+
+    @Test
+    void getHouseById_ShouldForgetUnknownIdsOnceARefreshBringsThemIn() throws ErrorObtainingHousesException {
+        //Arrange
+        HouseModel house1 = fixture.create(HouseModel.class);
+        HouseModel createdLater = fixture.create(HouseModel.class);
+
+        when(houseApiMock.getHouses())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1)).build())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1, createdLater)).build());
+
+        //Act
+        adapter.getHouseById(house1.getId());
+        Optional<House> beforeRefresh = adapter.getHouseById(createdLater.getId());
+        Optional<House> afterRefresh = adapter.getHouseById(createdLater.getId());
+
+        //Assert
+        assertThat(beforeRefresh).isEmpty();
+        assertThat(afterRefresh.get().getId()).isEqualTo(createdLater.getId());
+    }
+
+    @Test
+    void getHouseById_ShouldPublishHousesBroughtInUnderANewName() throws ErrorObtainingHousesException {
+        //Arrange
+        HouseModel house1 = fixture.create(HouseModel.class);
+        HouseModel house2 = fixture.create(HouseModel.class);
+        HouseModel house1Renamed = HouseModel.builder().id(house1.getId()).name("Renamed " + house1.getName()).school(house1.getSchool()).build();
+
+        when(houseApiMock.getHouses())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1, house2)).build())
+                .thenReturn(HouseModelRoot.builder().houses(List.of(house1Renamed, house2)).build());
+
+        //Act
+        adapter.getHouseById(house1.getId());
+        adapter.getHouseById("unknown-id");
+
+        //Assert
+        assertThat(published).hasSize(1);
+        assertThat(((HousesRenamed) published.get(0)).getHouses())
+                .extracting("id", "name")
+                .containsExactly(tuple(house1.getId(), house1Renamed.getName()));
+    }
+
+    @Test
+    void getHouses_ShouldPersistEveryRefresh() throws ErrorObtainingHousesException {
+        //Arrange
+        HouseModel house1 = fixture.create(HouseModel.class);
+        HouseModel house2 = fixture.create(HouseModel.class);
+
+        when(houseApiMock.getHouses()).thenReturn(HouseModelRoot.builder().houses(List.of(house1, house2)).build());
+
+        //Act
+        adapter.getHouses();
+
+        //Assert
+        assertThat(snapshotFile.load().get().getHouses())
+                .extracting("id", "name")
+                .containsExactly(tuple(house1.getId(), house1.getName()), tuple(house2.getId(), house2.getName()));
+    }
+
+    @Test
+    void getHouses_ShouldServePersistedHousesWithoutWaitingOnTheApi() throws ErrorObtainingHousesException {
+        //Arrange
+        House persisted = fixture.create(House.class);
+        snapshotFile.save(List.of(persisted), Instant.now().minus(Duration.ofDays(1)));
+        PotterApiHttpAdapter restartedAdapter = new PotterApiHttpAdapter(new HouseDirectory(houseApiMock, Duration.ofHours(1), backgroundRefreshes::add, new SimpleMeterRegistry(), new ConcurrentMapCache("unknownHouses"), published::add, snapshotFile));
+
+        when(houseApiMock.getHouses()).thenThrow(new RuntimeException());
+
+        //Act
+        Optional<House> house = restartedAdapter.getHouseById(persisted.getId());
+        List<House> houses = restartedAdapter.getHouses();
+
+        //Assert
+        assertThat(house.get().getName()).isEqualTo(persisted.getName());
+        assertThat(houses).extracting("id").containsExactly(persisted.getId());
+        assertThat(backgroundRefreshes).hasSize(1);
+        verify(houseApiMock, never()).getHouses();
+    }
+
+    @Test
+    void getHouses_ShouldReportHowOldTheServedHousesAre() {
+        //Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        snapshotFile.save(List.of(fixture.create(House.class)), Instant.now().minus(Duration.ofHours(2)));
+
+        //Act
+        new HouseDirectory(houseApiMock, Duration.ofHours(1), backgroundRefreshes::add, meterRegistry, new ConcurrentMapCache("unknownHouses"), published::add, snapshotFile);
+
+        //Assert
+        assertThat(meterRegistry.get("potterapi.houses.snapshot.age").timeGauge().value(TimeUnit.HOURS)).isBetween(1.9, 2.1);
+    }
+}
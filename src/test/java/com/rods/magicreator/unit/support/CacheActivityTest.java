@@ -0,0 +1,37 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.support.CacheActivity;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.EventType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CacheActivityTest {
+
+    private final CacheActivity activity = new CacheActivity();
+
+    @Test
+    void OnEvent_Should_CountEvictionsAndExpirationsApart() {
+        //Act
+        activity.onEvent(event(EventType.EVICTED, "1", "Luna", null));
+        activity.onEvent(event(EventType.EXPIRED, "2", "Ginny", null));
+        activity.onEvent(event(EventType.EXPIRED, "3", "Neville", null));
+
+        //Assert
+        assertThat(activity.getEvictions()).isEqualTo(1);
+        assertThat(activity.getExpirations()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheEvent<Object, Object> event(EventType type, String key, Object oldValue, Object newValue) {
+        CacheEvent<Object, Object> event = mock(CacheEvent.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getKey()).thenReturn(key);
+        when(event.getOldValue()).thenReturn(oldValue);
+        when(event.getNewValue()).thenReturn(newValue);
+        return event;
+    }
+}
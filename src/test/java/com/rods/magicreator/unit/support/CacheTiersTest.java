@@ -0,0 +1,89 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.support.CacheTiers;
+import org.ehcache.Cache;
+import org.ehcache.PersistentCacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheTiersTest {
+
+    @TempDir
+    Path directory;
+
+    private PersistentCacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        if (cacheManager != null) cacheManager.close();
+    }
+
+    private Cache<String, String> cache(ResourcePoolsBuilder pools) {
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .with(CacheManagerBuilder.persistence(directory.toFile()))
+                .withCache("characters", CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, pools))
+                .build(true);
+        return cacheManager.getCache("characters", String.class, String.class);
+    }
+
+    @Test
+    void OccupiedBytes_Should_BeReadForEachTier_FromHeapDownToDisk() {
+        //Arrange
+        Cache<String, String> cache = cache(ResourcePoolsBuilder.newResourcePoolsBuilder()
+                .heap(64, MemoryUnit.KB)
+                .offheap(1, MemoryUnit.MB)
+                .disk(2, MemoryUnit.MB));
+        CacheTiers tiers = new CacheTiers(cache);
+
+        //Act
+        for (int i = 0; i < 100; i++) cache.put("character-" + i, "Luna Lovegood " + i);
+
+        //Assert
+        assertThat(tiers.names()).containsExactly(CacheTiers.HEAP, CacheTiers.OFF_HEAP, CacheTiers.DISK);
+        assertThat(tiers.occupiedBytes(CacheTiers.DISK).get()).isPositive();
+        assertThat(tiers.occupiedBytes(CacheTiers.HEAP)).isPresent();
+    }
+
+    @Test
+    void OccupiedBytes_Should_BeEmpty_ForHeapsSizedByEntries_AndMissingTiers() {
+        //Arrange
+        Cache<String, String> cache = cache(ResourcePoolsBuilder.heap(100));
+        CacheTiers tiers = new CacheTiers(cache);
+
+        //Act
+        cache.put("character-1", "Luna Lovegood");
+
+        //Assert
+        assertThat(tiers.names()).containsExactly(CacheTiers.HEAP);
+        assertThat(tiers.occupiedBytes(CacheTiers.HEAP)).isEmpty();
+        assertThat(tiers.occupiedBytes(CacheTiers.DISK)).isEmpty();
+    }
+
+    @Test
+    void Entries_Should_CountEveryEntryInTheTiers_AndNoneOnceTheCacheIsCleared() {
+        //Arrange
+        Cache<String, String> cache = cache(ResourcePoolsBuilder.newResourcePoolsBuilder()
+                .heap(10)
+                .disk(2, MemoryUnit.MB));
+        CacheTiers tiers = new CacheTiers(cache);
+        for (int i = 0; i < 100; i++) cache.put("character-" + i, "Luna Lovegood " + i);
+        cache.remove("character-0");
+        long entries = tiers.entries();
+
+        //Act
+        cache.clear();
+
+        //Assert
+        assertThat(entries).isEqualTo(99);
+        assertThat(tiers.entries()).isZero();
+    }
+}
@@ -0,0 +1,52 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.support.CharacterSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharacterSerializerTest {
+
+    private final CharacterSerializer serializer = new CharacterSerializer();
+
+    @Test
+    void Read_Should_RestoreEveryFieldSerialized() {
+        //Arrange
+        Character character = new Character("60c1e2b5f1a2b34c5d6e7f80", "Luna Lovegood", "student", "Hogwarts School of Witchcraft and Wizardry",
+                "Ravenclaw-Id-987", "Ravenclaw", "hare \u2728", 3L);
+
+        //Act
+        Character read = serializer.read(serializer.serialize(character));
+
+        //Assert
+        assertThat(read).usingRecursiveComparison().isEqualTo(character);
+    }
+
+    @Test
+    void Read_Should_KeepNullFieldsNull() {
+        //Arrange
+        Character character = Character.builder().name("Peeves").build();
+
+        //Act
+        Character read = serializer.read(serializer.serialize(character));
+
+        //Assert
+        assertThat(read.getName()).isEqualTo("Peeves");
+        assertThat(read.getId()).isNull();
+        assertThat(read.getPatronus()).isNull();
+    }
+
+    @Test
+    void Equals_Should_CompareCharacterWithItsBinaryForm() {
+        //Arrange
+        Character character = Character.builder().id("1").name("Luna Lovegood").build();
+        ByteBuffer binary = serializer.serialize(character);
+
+        //Act & Assert
+        assertThat(serializer.equals(character, binary)).isTrue();
+        assertThat(serializer.equals(character.withName("Ginny Weasley"), binary)).isFalse();
+    }
+}
@@ -0,0 +1,62 @@
+package com.rods.magicreator.unit.support;
+
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.rods.magicreator.domain.models.Character;
+import com.rods.magicreator.domain.models.CharacterProjection;
+import com.rods.magicreator.support.JacksonConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JacksonConfigurationTest {
+
+    private final JacksonConfiguration configuration = new JacksonConfiguration();
+
+    private final Character luna = new Character("60c1e2b5f1a2b34c5d6e7f80", "Luna Lovegood", "student", "Hogwarts School of Witchcraft and Wizardry",
+            "Ravenclaw-Id-987", "Ravenclaw", "hare", null);
+
+    private Jackson2ObjectMapperBuilder builder() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule());
+        configuration.characterFieldsCustomizer().customize(builder);
+        return builder;
+    }
+
+    @Test
+    void CborConverter_Should_ReadBackEveryFieldItWrote() throws Exception {
+        //Arrange
+        MappingJackson2CborHttpMessageConverter converter = configuration.cborHttpMessageConverter(builder());
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        //Act
+        converter.write(luna, MediaType.APPLICATION_CBOR, output);
+        Object read = converter.read(Character.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        //Assert
+        assertThat(output.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(read).usingRecursiveComparison().isEqualTo(luna);
+    }
+
+    @Test
+    void SmileConverter_Should_WriteOnlyProjectedFields() throws Exception {
+        //Arrange
+        MappingJackson2SmileHttpMessageConverter converter = configuration.smileHttpMessageConverter(builder());
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        CharacterProjection names = CharacterProjection.of(List.of("name"));
+
+        //Act
+        converter.write(JacksonConfiguration.projected(luna, names), new MediaType("application", "x-jackson-smile"), output);
+        Character read = (Character) converter.read(Character.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        //Assert
+        assertThat(read).usingRecursiveComparison()
+                .isEqualTo(new Character("60c1e2b5f1a2b34c5d6e7f80", "Luna Lovegood", null, null, null, null, null, null));
+    }
+}
@@ -0,0 +1,95 @@
+package com.rods.magicreator.unit.support;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.rods.magicreator.support.MongoCommandMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MongoCommandMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoCommandMetrics metrics = new MongoCommandMetrics(meterRegistry, Duration.ofMillis(100));
+    private final ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Test
+    void CommandSucceeded_Should_TimeTheCommandByCommandAndCollection() {
+        //Arrange
+        BsonDocument find = BsonDocument.parse("{find: 'character', filter: {house: 'Gryffindor-Id'}, $db: 'admin'}");
+        metrics.commandStarted(new CommandStartedEvent(1, connection, "admin", "find", find));
+
+        //Act
+        metrics.commandSucceeded(new CommandSucceededEvent(1, connection, "find", new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(15)));
+
+        //Assert
+        Timer timer = meterRegistry.get("mongodb.commands")
+                .tag("command", "find")
+                .tag("collection", "character")
+                .tag("status", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(15);
+    }
+
+    @Test
+    void CommandFailed_Should_BeTimedApartFromSuccesses() {
+        //Arrange
+        BsonDocument delete = BsonDocument.parse("{delete: 'character', deletes: [{q: {school: 'Durmstrang'}, limit: 0}]}");
+        metrics.commandStarted(new CommandStartedEvent(2, connection, "admin", "delete", delete));
+
+        //Act
+        metrics.commandFailed(new CommandFailedEvent(2, connection, "delete", TimeUnit.MILLISECONDS.toNanos(250), new IllegalStateException("Failed")));
+
+        //Assert
+        assertThat(meterRegistry.get("mongodb.commands").tag("status", "failure").tag("collection", "character").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void FilterShapeOf_Should_LeaveEveryValueOut() {
+        //Arrange
+        BsonDocument find = BsonDocument.parse("{find: 'character', filter: {name: {$regex: '^Harry'}, role: 'student', house: {$in: ['a', 'b', 'c']}}}");
+
+        //Act
+        String shape = MongoCommandMetrics.filterShapeOf("find", find);
+
+        //Assert
+        assertThat(shape).isEqualTo("{name: {$regex: ?}, role: ?, house: {$in: [?]}}");
+    }
+
+    @Test
+    void FilterShapeOf_Should_ListEachDistinctFilterOfAWriteOnce() {
+        //Arrange
+        BsonDocument update = BsonDocument.parse("{update: 'character', updates: ["
+                + "{q: {_id: 1}, u: {$set: {role: 'a'}}}, {q: {_id: 2}, u: {$set: {role: 'b'}}}, {q: {house: 'h'}, u: {$set: {role: 'c'}}}]}");
+
+        //Act
+        String shape = MongoCommandMetrics.filterShapeOf("update", update);
+
+        //Assert
+        assertThat(shape).isEqualTo("[{_id: ?}, {house: ?}]");
+    }
+
+    @Test
+    void FilterShapeOf_Should_BeNull_ForCommandsWithoutFilters() {
+        //Arrange
+        BsonDocument insert = BsonDocument.parse("{insert: 'character', documents: [{name: 'Harry Potter'}]}");
+
+        //Act
+        String shape = MongoCommandMetrics.filterShapeOf("insert", insert);
+
+        //Assert
+        assertThat(shape).isNull();
+    }
+}
@@ -0,0 +1,86 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.support.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String> singleFlight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @Test
+    void Execute_Should_ShareOneCallBetweenConcurrentCallers() throws Exception {
+        //Arrange
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+
+        Future<String> first = callers.submit(() -> singleFlight.execute(() -> {
+            calls.incrementAndGet();
+            callStarted.countDown();
+            await(releaseCall);
+            return "result";
+        }));
+        callStarted.await();
+
+        //Act
+        List<Future<String>> others = IntStream.range(0, 5)
+                .mapToObj(i -> callers.submit(() -> singleFlight.execute(() -> {
+                    calls.incrementAndGet();
+                    return "another-result";
+                })))
+                .collect(Collectors.toList());
+        while (meterRegistry.get("singleflight.coalesced").counter().count() < 5) Thread.sleep(5);
+        releaseCall.countDown();
+
+        //Assert
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        for (Future<String> other : others) assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("singleflight.calls").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void Execute_Should_ShareErrorsAndLetTheNextCallerTryAgain() throws Exception {
+        //Arrange
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+
+        Future<String> failing = callers.submit(() -> singleFlight.execute(() -> {
+            callStarted.countDown();
+            await(releaseCall);
+            throw new IllegalStateException("Remote call failed");
+        }));
+        callStarted.await();
+        Future<String> coalesced = callers.submit(() -> singleFlight.execute(() -> "never-called"));
+        while (meterRegistry.get("singleflight.coalesced").counter().count() < 1) Thread.sleep(5);
+
+        //Act
+        releaseCall.countDown();
+
+        //Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> coalesced.get(5, TimeUnit.SECONDS));
+        assertThat(error.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("Remote call failed");
+        assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertThat(singleFlight.execute(() -> "retried")).isEqualTo("retried");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.support.StartupReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupReportTest {
+
+    private final BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+
+    private StartupTimeline refreshCreating(String... beanNames) {
+        StartupStep environment = startup.start("spring.boot.application.environment-prepared");
+        environment.end();
+
+        StartupStep refresh = startup.start("spring.context.refresh");
+        for (String beanName : beanNames) startup.start("spring.beans.instantiate").tag("beanName", beanName).end();
+        refresh.end();
+
+        return startup.getBufferedTimeline();
+    }
+
+    @Test
+    void Phases_Should_StartWithTheJvm_FollowedByTopLevelStepsInOrder() {
+        //Arrange
+        StartupTimeline timeline = refreshCreating("characterCache", "houseDirectory");
+        Instant jvmStartedAt = timeline.getStartTime().minusMillis(500);
+
+        //Act
+        Map<String, Duration> phases = StartupReport.phases(timeline, jvmStartedAt);
+
+        //Assert
+        assertThat(phases.keySet()).containsExactly("jvm", "spring.boot.application.environment-prepared", "spring.context.refresh");
+        assertThat(phases.get("jvm")).isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void SlowestBeans_Should_OnlyListBeanCreations_UpToTheLimit() {
+        //Arrange
+        StartupTimeline timeline = refreshCreating("characterCache", "houseDirectory", "charactersService");
+
+        //Act
+        Map<String, Duration> slowest = StartupReport.slowestBeans(timeline, 2);
+
+        //Assert
+        assertThat(slowest).hasSize(2);
+        assertThat(slowest.keySet()).isSubsetOf("characterCache", "houseDirectory", "charactersService");
+    }
+}
@@ -0,0 +1,230 @@
+package com.rods.magicreator.unit.support;
+
+import com.rods.magicreator.support.WriteBehindQueue;
+import com.rods.magicreator.support.WriteBehindQueue.BatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WriteBehindQueueTest {
+
+    private static final Duration NO_WAIT = Duration.ZERO;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private WriteBehindQueue<String> queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) queue.close(Duration.ofSeconds(1));
+    }
+
+    //Values are "key:value", so that writes to the same key can be told apart
+    private WriteBehindQueue<String> queueWith(int capacity, int batchSize, Duration window, BatchWriter<String> writer) {
+        queue = new WriteBehindQueue<>("test", capacity, batchSize, window, MAX_ATTEMPTS, value -> value.split(":")[0], writer, meterRegistry);
+        return queue;
+    }
+
+    private WriteBehindQueue<String> queue(int capacity, int batchSize, Duration window, Consumer<List<String>> writer) {
+        return queueWith(capacity, batchSize, window, batch -> {
+            writer.accept(batch);
+            return List.of();
+        });
+    }
+
+    @Test
+    void Offer_Should_KeepOnlyTheLastWriteToAKey_WhilePending() throws Exception {
+        //Arrange
+        WriteBehindQueue<String> queue = queue(10, 10, Duration.ofHours(1), batches::add);
+
+        //Act
+        queue.offer("harry:1", NO_WAIT);
+        queue.offer("draco:1", NO_WAIT);
+        queue.offer("harry:2", NO_WAIT);
+        int lost = queue.close(Duration.ofSeconds(5));
+
+        //Assert
+        assertThat(lost).isZero();
+        assertThat(batches).containsExactly(List.of("harry:2", "draco:1"));
+        assertThat(meterRegistry.get("writebehind.collapsed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void Offer_Should_FlushAFullBatch_WithoutWaitingForTheWindow() throws Exception {
+        //Arrange
+        CountDownLatch flushed = new CountDownLatch(1);
+        WriteBehindQueue<String> queue = queue(10, 2, Duration.ofHours(1), batch -> {
+            batches.add(batch);
+            flushed.countDown();
+        });
+
+        //Act
+        queue.offer("harry:1", NO_WAIT);
+        queue.offer("draco:1", NO_WAIT);
+
+        //Assert
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).containsExactly(List.of("harry:1", "draco:1"));
+    }
+
+    @Test
+    void Offer_Should_FlushWhatIsPending_WhenTheWindowElapses() throws Exception {
+        //Arrange
+        CountDownLatch flushed = new CountDownLatch(1);
+        WriteBehindQueue<String> queue = queue(10, 10, Duration.ofMillis(20), batch -> {
+            batches.add(batch);
+            flushed.countDown();
+        });
+
+        //Act
+        queue.offer("harry:1", NO_WAIT);
+
+        //Assert
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).containsExactly(List.of("harry:1"));
+    }
+
+    @Test
+    void Offer_Should_RefuseNewKeys_WhenFullForLongerThanItCanWait() throws Exception {
+        //Arrange
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        WriteBehindQueue<String> queue = queue(3, 1, Duration.ZERO, batch -> await(releaseWriter));
+        queue.offer("harry:1", NO_WAIT);
+        while (queue.pending() > 0) Thread.sleep(5);
+        queue.offer("draco:1", NO_WAIT);
+        queue.offer("luna:1", NO_WAIT);
+
+        //Act
+        boolean newKey = queue.offer("viktor:1", Duration.ofMillis(20));
+        boolean pendingKey = queue.offer("luna:2", NO_WAIT);
+        releaseWriter.countDown();
+
+        //Assert
+        assertThat(newKey).isFalse();
+        assertThat(pendingKey).isTrue();
+        assertThat(meterRegistry.get("writebehind.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void Offer_Should_CountTheBatchBeingWritten_UntilItsFailedWritesArePutBack() throws Exception {
+        //Arrange
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindQueue<String> queue = queue(2, 2, Duration.ofMillis(10), batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(releaseWriter);
+                throw new IllegalStateException("Storage unavailable");
+            }
+            batches.add(batch);
+        });
+        queue.offer("harry:1", NO_WAIT);
+        queue.offer("draco:1", NO_WAIT);
+        while (queue.pending() > 0) Thread.sleep(5);
+
+        //Act
+        boolean whileWriting = queue.offer("luna:1", Duration.ofMillis(20));
+        releaseWriter.countDown();
+        int lost = queue.close(Duration.ofSeconds(5));
+
+        //Assert
+        assertThat(whileWriting).isFalse();
+        assertThat(lost).isZero();
+        assertThat(batches).containsExactly(List.of("harry:1", "draco:1"));
+    }
+
+    @Test
+    void Close_Should_RetryFailedBatches_BeforeGivingUp() throws Exception {
+        //Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindQueue<String> queue = queue(10, 10, Duration.ofMillis(10), batch -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("Storage unavailable");
+            batches.add(batch);
+        });
+        queue.offer("harry:1", NO_WAIT);
+
+        //Act
+        int lost = queue.close(Duration.ofSeconds(5));
+
+        //Assert
+        assertThat(lost).isZero();
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(batches).containsExactly(List.of("harry:1"));
+    }
+
+    @Test
+    void Close_Should_GiveUpOnWritesFailingEveryAttempt_WithoutHoldingBackTheOthers() throws Exception {
+        //Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindQueue<String> queue = queue(10, 1, Duration.ofMillis(10), batch -> {
+            if (batch.get(0).startsWith("harry")) {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("Invalid character");
+            }
+            batches.add(batch);
+        });
+        queue.offer("harry:1", NO_WAIT);
+        queue.offer("draco:1", NO_WAIT);
+
+        //Act
+        int lost = queue.close(Duration.ofSeconds(5));
+
+        //Assert
+        assertThat(lost).isZero();
+        assertThat(attempts.get()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(batches).containsExactly(List.of("draco:1"));
+        assertThat(meterRegistry.get("writebehind.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("writebehind.flush.failures").counter().count()).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void Close_Should_RetryOnlyTheWritesHandedBack_AndGiveUpOnThemAfterEveryAttempt() throws Exception {
+        //Arrange
+        WriteBehindQueue<String> queue = queueWith(10, 10, Duration.ofMillis(10), batch -> {
+            batches.add(batch);
+            return batch.contains("harry:1") ? List.of("harry:1") : List.of();
+        });
+        queue.offer("harry:1", NO_WAIT);
+        queue.offer("draco:1", NO_WAIT);
+
+        //Act
+        int lost = queue.close(Duration.ofSeconds(5));
+
+        //Assert
+        assertThat(lost).isZero();
+        assertThat(batches).containsExactly(List.of("harry:1", "draco:1"), List.of("harry:1"), List.of("harry:1"));
+        assertThat(meterRegistry.get("writebehind.written").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("writebehind.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("writebehind.flush.failures").counter().count()).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void Offer_Should_Throw_AfterClosing() throws Exception {
+        //Arrange
+        WriteBehindQueue<String> queue = queue(10, 10, Duration.ofMillis(10), batches::add);
+        queue.close(Duration.ofSeconds(1));
+
+        //Act
+        //Assert
+        assertThrows(IllegalStateException.class, () -> queue.offer("harry:1", NO_WAIT));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}